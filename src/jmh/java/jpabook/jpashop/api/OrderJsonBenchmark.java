@@ -0,0 +1,151 @@
+package jpabook.jpashop.api;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jpabook.jpashop.api.OrderApiController.OrderDto;
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.Delivery;
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.domain.Order;
+import jpabook.jpashop.domain.OrderItem;
+import jpabook.jpashop.domain.OrderStatus;
+import jpabook.jpashop.domain.item.Book;
+import jpabook.jpashop.repository.order.query.OrderItemQueryDto;
+import jpabook.jpashop.repository.order.query.OrderQueryDto;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 주문 DTO 목록 JSON 직렬화 : 기본(리플렉션 BeanSerializer) vs ApiJsonModule 전용 직렬화기 (DB 없음)
+ * <p>
+ *     같은 설정의 ObjectMapper 두개에 모듈만 다르게 해서 주문 목록을 버리는 스트림에 쓴다.
+ *     bytes 카운터(EVENTS)는 초당 쓴 바이트 수로 나온다. gc.alloc.rate.norm 으로 호출당 할당량도 같이 본다.
+ * </p>
+ * ./gradlew jmh -Pjmh.includes=OrderJsonBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class OrderJsonBenchmark {
+
+    @Param({"1000", "10000"})
+    public int orders;
+
+    @Param({"1", "5"})
+    public int itemsPerOrder;
+
+    private ObjectMapper reflective;
+    private ObjectMapper custom;
+    private List<OrderDto> orderDtos;
+    private List<OrderQueryDto> orderQueryDtos;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Counters {
+        public long bytes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            bytes = 0;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        reflective = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS) // 스프링 부트 기본 설정과 같게
+                .build();
+        custom = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .modulesToInstall(new ApiJsonModule())
+                .build();
+
+        orderDtos = new ArrayList<>(orders);
+        orderQueryDtos = new ArrayList<>(orders);
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 1; i <= orders; i++) {
+            Member member = new Member();
+            member.setName("회원" + i);
+            Address address = new Address("서울", "강가 " + i, "123-" + i);
+            Delivery delivery = new Delivery();
+            delivery.setAddress(address);
+
+            OrderItem[] orderItems = new OrderItem[itemsPerOrder];
+            List<OrderItemQueryDto> orderItemQueryDtos = new ArrayList<>(itemsPerOrder);
+            for (int j = 0; j < itemsPerOrder; j++) {
+                Book book = new Book();
+                book.setName("BOOK " + j);
+                book.setPrice(10000 + j);
+                book.setStockQuantity(10);
+                orderItems[j] = OrderItem.createOrderItem(book, book.getPrice(), 1);
+                orderItemQueryDtos.add(new OrderItemQueryDto((long) i, book.getName(), book.getPrice(), 1));
+            }
+            Order order = Order.createOrder(member, delivery, orderItems);
+            order.setId((long) i);
+            order.setOrderDate(now.minusMinutes(i));
+
+            orderDtos.add(new OrderDto(order));
+            orderQueryDtos.add(new OrderQueryDto((long) i, member.getName(), order.getOrderDate(),
+                    OrderStatus.ORDER, address, orderItemQueryDtos));
+        }
+    }
+
+    @Benchmark
+    public void orderDto_reflective(Counters counters) throws IOException {
+        write(counters, reflective, orderDtos);
+    }
+
+    @Benchmark
+    public void orderDto_custom(Counters counters) throws IOException {
+        write(counters, custom, orderDtos);
+    }
+
+    @Benchmark
+    public void orderQueryDto_reflective(Counters counters) throws IOException {
+        write(counters, reflective, orderQueryDtos);
+    }
+
+    @Benchmark
+    public void orderQueryDto_custom(Counters counters) throws IOException {
+        write(counters, custom, orderQueryDtos);
+    }
+
+    private static void write(Counters counters, ObjectMapper mapper, Object value) throws IOException {
+        CountingOutputStream out = new CountingOutputStream();
+        mapper.writeValue(out, value);
+        counters.bytes += out.count;
+    }
+
+    /**
+     * 쓴 바이트 수만 센다. (ByteArrayOutputStream 의 배열 복사가 측정에 섞이지 않게)
+     */
+    private static class CountingOutputStream extends OutputStream {
+        private long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package jpabook.jpashop.api;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jpabook.jpashop.api.OrderApiController.OrderDto;
+import jpabook.jpashop.bench.JpaBenchmarkContext;
+import jpabook.jpashop.domain.Order;
+import jpabook.jpashop.repository.OrderRepository;
+import jpabook.jpashop.repository.order.query.OrderFanOutAssembler;
+import jpabook.jpashop.repository.order.query.OrderFlatAssembler;
+import jpabook.jpashop.repository.order.query.OrderQueryRepository;
+import org.hibernate.stat.Statistics;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * 주문 조회 API V3 ~ V6 가 쓰는 조회 전략별 지연시간, 할당량(gc 프로파일러), SQL statement 수
+ * <p>
+ *     BulkDataGenerator 로 주문 수(orders), 주문당 최대 상품 수(maxItemsPerOrder) 만큼 메모리 H2 에 만들어 두고,
+ *     매 호출마다 전체 주문을 읽어서 API 와 같은 DTO 로 바꾸고 JSON 으로 직렬화한다.
+ *     V3.1 (offset 페이징) 은 페이지 크기 100 으로 끝까지 넘겨 읽는다.
+ * </p>
+ * <li>statements : 호출마다 Hibernate 가 prepare 한 statement 수의 합 (invocations 로 나누면 호출당 쿼리 수)</li>
+ * ./gradlew jmh -Pjmh.includes=OrderReadBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class OrderReadBenchmark {
+
+    private static final int PAGE_SIZE = 100;
+
+    @Param({"1000", "10000"})
+    public int orders;
+
+    @Param({"1", "5"})
+    public int maxItemsPerOrder;
+
+    private ConfigurableApplicationContext context;
+    private TransactionTemplate readOnlyTransaction;
+    private OrderRepository orderRepository;
+    private OrderQueryRepository orderQueryRepository;
+    private OrderFanOutAssembler orderFanOutAssembler;
+    private ObjectMapper objectMapper;
+    private Statistics statistics;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Counters {
+        public long statements;
+        public long invocations;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            statements = 0;
+            invocations = 0;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // generate 프로필을 같이 켜면 BulkDataGenerator 가 기동 시점에 데이터를 만든다.
+        context = JpaBenchmarkContext.start(
+                "spring.profiles.include=generate",
+                "spring.jpa.properties.hibernate.generate_statistics=true",
+                "jpashop.generator.members=" + Math.max(1, orders / 10),
+                "jpashop.generator.items=1000",
+                "jpashop.generator.categories=10",
+                "jpashop.generator.orders=" + orders,
+                "jpashop.generator.max-items-per-order=" + maxItemsPerOrder,
+                "jpashop.generator.reindex=false"); // bench 프로필은 전문 검색을 끈다.
+        JpaBenchmarkContext.requireGeneratedOrders(context, orders);
+        readOnlyTransaction = new TransactionTemplate(context.getBean(TransactionTemplate.class).getTransactionManager());
+        readOnlyTransaction.setReadOnly(true);
+        orderRepository = context.getBean(OrderRepository.class);
+        orderQueryRepository = context.getBean(OrderQueryRepository.class);
+        orderFanOutAssembler = context.getBean(OrderFanOutAssembler.class);
+        objectMapper = context.getBean(ObjectMapper.class);
+        statistics = JpaBenchmarkContext.statistics(context);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    /**
+     * V3 : 컬렉션 페치 조인 + distinct
+     */
+    @Benchmark
+    public byte[] v3_fetchJoin(Counters counters) throws Exception {
+        return read(counters, () -> toDto(orderRepository.findAllWithItem()));
+    }
+
+    /**
+     * V3.1 : xToOne 페치 조인 + offset 페이징, 컬렉션은 default_batch_fetch_size
+     */
+    @Benchmark
+    public byte[] v3_1_pagingBatchSize(Counters counters) throws Exception {
+        return read(counters, () -> {
+            List<OrderDto> result = new ArrayList<>();
+            for (int offset = 0; ; offset += PAGE_SIZE) {
+                List<Order> page = orderRepository.findAllWithMemberDelivery(offset, PAGE_SIZE);
+                result.addAll(toDto(page));
+                if (page.size() < PAGE_SIZE) {
+                    return result;
+                }
+            }
+        });
+    }
+
+    /**
+     * V4 : DTO 직접 조회 (주문마다 주문상품 쿼리, N+1)
+     */
+    @Benchmark
+    public byte[] v4_dtoNPlusOne(Counters counters) throws Exception {
+        return read(counters, () -> orderQueryRepository.findByOrderQueryDtos());
+    }
+
+    /**
+     * V5 : DTO 직접 조회 + IN 절
+     */
+    @Benchmark
+    public byte[] v5_dtoIn(Counters counters) throws Exception {
+        return read(counters, () -> orderQueryRepository.findAllByDto_optimization());
+    }
+
+    /**
+     * V5.1 : 자식 조회(회원, 배송, 주문상품, 카테고리)를 각자 별도 트랜잭션에서 동시에 실행
+     * <p>statements 는 SessionFactory 통계라 다른 쓰레드의 쿼리도 포함된다.</p>
+     */
+    @Benchmark
+    public byte[] v5_1_fanOut(Counters counters) throws Exception {
+        return read(counters, () -> orderFanOutAssembler.findAll());
+    }
+
+    /**
+     * V6 : 플랫 조인 한방 쿼리 + 애플리케이션에서 묶기
+     */
+    @Benchmark
+    public byte[] v6_flat(Counters counters) throws Exception {
+        return read(counters, () -> OrderFlatAssembler.assemble(orderQueryRepository.findAllByDto_flat()));
+    }
+
+    private static List<OrderDto> toDto(List<Order> orders) {
+        return orders.stream()
+                .map(OrderDto::new)
+                .collect(toList());
+    }
+
+    /**
+     * API 처럼 트랜잭션 안에서 조회와 DTO 변환을 끝내고 (open-in-view 없음) JSON 으로 직렬화한다.
+     */
+    private byte[] read(Counters counters, Supplier<List<?>> query) throws Exception {
+        long before = statistics.getPrepareStatementCount();
+        List<?> result = readOnlyTransaction.execute(status -> query.get());
+        counters.statements += statistics.getPrepareStatementCount() - before;
+        counters.invocations++;
+        return objectMapper.writeValueAsBytes(result);
+    }
+}
@@ -0,0 +1,135 @@
+package jpabook.jpashop.api;
+
+import jpabook.jpashop.api.OrderApiController.OrderDto;
+import jpabook.jpashop.bench.JpaBenchmarkContext;
+import jpabook.jpashop.domain.Order;
+import jpabook.jpashop.repository.OrderRepository;
+import org.hibernate.engine.spi.EntityEntry;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * V3 (컬렉션 페치 조인) 조회를 managed 엔티티 / 읽기 전용 엔티티로 했을 때 할당량과 스냅샷 수
+ * <li>managed : 힌트 없는 쿼리 + 읽기/쓰기 트랜잭션 (이전 방식, 커밋할때 dirty checking)</li>
+ * <li>readOnlyHint : OrderRepository.findAllWithItem (QueryHints.READ_ONLY) + 읽기/쓰기 트랜잭션</li>
+ * <li>readOnlyTransaction : 같은 조회 + readOnly 트랜잭션 (세션 기본 읽기 전용 + FlushMode.MANUAL)</li>
+ * <p>
+ *     gc 프로파일러의 gc.alloc.rate.norm 으로 호출당 할당량을,
+ *     snapshots 카운터로 트랜잭션이 끝나기 직전 영속성 컨텍스트가 들고 있던 스냅샷(loadedState) 수를 본다.
+ * </p>
+ * ./gradlew jmh -Pjmh.includes=OrderReadOnlyBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class OrderReadOnlyBenchmark {
+
+    @Param({"1000", "10000"})
+    public int orders;
+
+    private ConfigurableApplicationContext context;
+    private TransactionTemplate readWriteTransaction;
+    private TransactionTemplate readOnlyTransaction;
+    private OrderRepository orderRepository;
+    private EntityManager em;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Counters {
+        public long snapshots;
+        public long invocations;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            snapshots = 0;
+            invocations = 0;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = JpaBenchmarkContext.start(
+                "spring.profiles.include=generate",
+                "jpashop.generator.members=" + Math.max(1, orders / 10),
+                "jpashop.generator.items=1000",
+                "jpashop.generator.categories=10",
+                "jpashop.generator.orders=" + orders,
+                "jpashop.generator.max-items-per-order=3",
+                "jpashop.generator.reindex=false");
+        JpaBenchmarkContext.requireGeneratedOrders(context, orders);
+        readWriteTransaction = context.getBean(TransactionTemplate.class);
+        readOnlyTransaction = new TransactionTemplate(readWriteTransaction.getTransactionManager());
+        readOnlyTransaction.setReadOnly(true);
+        orderRepository = context.getBean(OrderRepository.class);
+        em = context.getBean(EntityManager.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<OrderDto> managed(Counters counters) {
+        return read(counters, readWriteTransaction, () -> em.createQuery(
+                        "SELECT distinct o FROM Order o" +
+                                " join fetch o.member m" +
+                                " join fetch o.delivery d" +
+                                " join fetch o.orderItems oi" +
+                                " join fetch oi.item i", Order.class)
+                .getResultList());
+    }
+
+    @Benchmark
+    public List<OrderDto> readOnlyHint(Counters counters) {
+        return read(counters, readWriteTransaction, () -> orderRepository.findAllWithItem());
+    }
+
+    @Benchmark
+    public List<OrderDto> readOnlyTransaction(Counters counters) {
+        return read(counters, readOnlyTransaction, () -> orderRepository.findAllWithItem());
+    }
+
+    private List<OrderDto> read(Counters counters, TransactionTemplate transaction, Supplier<List<Order>> query) {
+        List<OrderDto> result = transaction.execute(status -> {
+            List<OrderDto> dtos = query.get().stream()
+                    .map(OrderDto::new)
+                    .collect(toList());
+            counters.snapshots += countSnapshots();
+            return dtos;
+        });
+        counters.invocations++;
+        return result;
+    }
+
+    private long countSnapshots() {
+        long count = 0;
+        for (Map.Entry<Object, EntityEntry> entry : em.unwrap(SessionImplementor.class)
+                .getPersistenceContext().reentrantSafeEntityEntries()) {
+            if (entry.getValue().getLoadedState() != null) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
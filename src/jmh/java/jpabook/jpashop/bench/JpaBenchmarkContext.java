@@ -0,0 +1,62 @@
+package jpabook.jpashop.bench;
+
+import jpabook.jpashop.JpashopApplication;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * 벤치마크에서 JPA 계층만 띄우기 위한 스프링 컨텍스트 (웹서버 없이, 메모리 H2, bench 프로필)
+ */
+public final class JpaBenchmarkContext {
+
+    private JpaBenchmarkContext() {
+    }
+
+    /**
+     * @param properties 추가로 덮어쓸 설정 (key=value)
+     * <p>
+     *     SpringApplicationBuilder.properties 는 기본값(우선순위 최하)이라 application-*.yml 에 지고,
+     *     커맨드라인 인자(--key=value)는 yml 보다 우선한다. 그래서 @Param 값은 인자로 넘긴다.
+     * </p>
+     */
+    public static ConfigurableApplicationContext start(String... properties) {
+        List<String> args = new ArrayList<>(properties.length + 1);
+        for (String property : properties) {
+            args.add("--" + property);
+        }
+        // Trial 마다 깨끗한 DB 를 쓰도록 DB 이름을 매번 바꾼다. (generate 프로필의 파일 DB 보다 우선)
+        args.add("--spring.datasource.url=jdbc:h2:mem:bench-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        return new SpringApplicationBuilder(JpashopApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("bench")
+                .run(args.toArray(new String[0]));
+    }
+
+    /**
+     * generate 프로필로 만든 주문 수가 @Param 과 같은지 확인한다.
+     * 설정이 yml 에 덮여서 다른 크기의 데이터(혹은 다른 DB)를 측정하는 일이 없게 Trial 시작 전에 멈춘다.
+     */
+    public static void requireGeneratedOrders(ConfigurableApplicationContext context, long expected) {
+        String url = context.getEnvironment().getProperty("spring.datasource.url");
+        if (url == null || !url.startsWith("jdbc:h2:mem:bench-")) {
+            throw new IllegalStateException("벤치마크 DB 가 아닙니다 : " + url);
+        }
+        Long orders = context.getBean(JdbcTemplate.class).queryForObject("select count(*) from orders", Long.class);
+        if (orders == null || orders != expected) {
+            throw new IllegalStateException("생성된 주문 수가 다릅니다 : expected=" + expected + ", actual=" + orders);
+        }
+    }
+
+    public static Statistics statistics(ConfigurableApplicationContext context) {
+        return context.getBean(EntityManagerFactory.class).unwrap(SessionFactory.class).getStatistics();
+    }
+}
@@ -0,0 +1,128 @@
+package jpabook.jpashop.bench;
+
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.Delivery;
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.domain.Order;
+import jpabook.jpashop.domain.OrderItem;
+import jpabook.jpashop.domain.item.Book;
+import jpabook.jpashop.domain.item.Item;
+import org.hibernate.stat.Statistics;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 주문 N개(주문상품 2개 + 배송 1개)를 저장할 때 처리량과 statement 수
+ * <p>
+ *     idOptimizer=none, batchSize=1 이 이전 설정이다. 시퀀스를 row 마다 조회하고(주문 1개당 3번) insert 를 하나씩 보낸다.
+ *     none 이면 하이버네이트가 @SequenceGenerator 의 allocationSize 를 1로 바꿔서 쓰기 때문에 매핑을 고치지 않고 이전 id 할당을 재현한다.
+ *     idOptimizer=pooled-lo 는 지금 매핑(allocationSize 50)이고, batchSize 100/500 이 batch 설정이다.
+ *     statements 카운터는 Hibernate 가 prepare 한 statement 수 (시퀀스 조회 포함, batch 로 묶이면 묶음당 1번)
+ * </p>
+ * ./gradlew jmh -Pjmh.includes=OrderInsertBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class OrderInsertBenchmark {
+
+    private static final int ORDERS_PER_TX = 500;
+
+    @Param({"none", "pooled-lo"})
+    public String idOptimizer;
+
+    @Param({"1", "100", "500"})
+    public int batchSize;
+
+    private ConfigurableApplicationContext context;
+    private TransactionTemplate transactionTemplate;
+    private EntityManager em;
+    private Statistics statistics;
+    private Long memberId;
+    private Long[] itemIds;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Counters {
+        public long statements;
+        public long orders;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            statements = 0;
+            orders = 0;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = JpaBenchmarkContext.start(
+                "spring.jpa.properties.hibernate.id.optimizer.pooled.preferred=" + idOptimizer,
+                "spring.jpa.properties.hibernate.jdbc.batch_size=" + batchSize,
+                "spring.jpa.properties.hibernate.order_inserts=true",
+                "spring.jpa.properties.hibernate.order_updates=true");
+        transactionTemplate = context.getBean(TransactionTemplate.class);
+        em = context.getBean(EntityManager.class);
+        statistics = JpaBenchmarkContext.statistics(context);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            Member member = new Member();
+            member.setName("bench");
+            member.setAddress(new Address("서울", "1", "1111"));
+            em.persist(member);
+            memberId = member.getId();
+
+            itemIds = new Long[10];
+            for (int i = 0; i < itemIds.length; i++) {
+                Book book = new Book();
+                book.setName("BOOK" + i);
+                book.setPrice(10000);
+                book.setStockQuantity(Integer.MAX_VALUE);
+                em.persist(book);
+                itemIds[i] = book.getId();
+            }
+        });
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ORDERS_PER_TX)
+    public void persistOrders(Counters counters) {
+        long before = statistics.getPrepareStatementCount();
+        transactionTemplate.executeWithoutResult(status -> {
+            Member member = em.find(Member.class, memberId);
+            for (int i = 0; i < ORDERS_PER_TX; i++) {
+                Item item1 = em.getReference(Item.class, itemIds[i % itemIds.length]);
+                Item item2 = em.getReference(Item.class, itemIds[(i + 1) % itemIds.length]);
+
+                Delivery delivery = new Delivery();
+                delivery.setAddress(member.getAddress());
+                Order order = Order.createOrder(member, delivery,
+                        OrderItem.createReservedOrderItem(item1, 10000, 1),
+                        OrderItem.createReservedOrderItem(item2, 10000, 2));
+                em.persist(order);
+            }
+        });
+        counters.statements += statistics.getPrepareStatementCount() - before;
+        counters.orders += ORDERS_PER_TX;
+    }
+}
@@ -0,0 +1,73 @@
+package jpabook.jpashop.repository.order.query;
+
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.OrderStatus;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.stream.Collectors.*;
+
+/**
+ * V6 플랫 데이터 재조립 비교 : groupingBy vs OrderFlatAssembler
+ * <p>
+ *     @OperationsPerInvocation 을 row 수로 잡았기 때문에 gc 프로파일러의 gc.alloc.rate.norm 이 곧 row 1개당 할당 바이트다.
+ * </p>
+ * ./gradlew jmh -Pjmh.includes=OrderFlatGroupingBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class OrderFlatGroupingBenchmark {
+
+    private static final int ORDERS = 10_000;
+    private static final int ITEMS_PER_ORDER = 3;
+    private static final int ROWS = ORDERS * ITEMS_PER_ORDER;
+
+    private List<OrderFlatDto> flats;
+
+    @Setup
+    public void setUp() {
+        flats = new ArrayList<>(ROWS);
+        LocalDateTime now = LocalDateTime.now();
+        for (long orderId = 1; orderId <= ORDERS; orderId++) {
+            Address address = new Address("서울", "street" + orderId, "12345");
+            for (int i = 0; i < ITEMS_PER_ORDER; i++) {
+                flats.add(new OrderFlatDto(orderId, "member" + orderId, now, OrderStatus.ORDER, address,
+                        "item" + i, 10000, i + 1));
+            }
+        }
+    }
+
+    /**
+     * 기존 V6 방식
+     */
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public List<OrderQueryDto> groupingByCollector() {
+        return flats.stream()
+                .collect(groupingBy(o -> new OrderQueryDto(o.getOrderId(), o.getName(), o.getOrderDate(), o.getOrderStatus(), o.getAddress()),
+                        mapping(o -> new OrderItemQueryDto(o.getOrderId(), o.getItemName(), o.getOrderPrice(), o.getCount()), toList())
+                )).entrySet().stream()
+                .map(e -> new OrderQueryDto(e.getKey().getOrderId(),
+                        e.getKey().getName(), e.getKey().getOrderDate(), e.getKey().getOrderStatus(),
+                        e.getKey().getAddress(), e.getValue()))
+                .collect(toList());
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public List<OrderQueryDto> singlePassAssembler() {
+        return OrderFlatAssembler.assemble(flats);
+    }
+}
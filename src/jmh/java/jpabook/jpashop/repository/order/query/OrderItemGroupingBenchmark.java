@@ -0,0 +1,79 @@
+package jpabook.jpashop.repository.order.query;
+
+import jpabook.jpashop.domain.OrderStatus;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * V5 에서 주문 id 를 모으고 주문상품을 주문별로 묶는 부분만 떼어서 할당량 비교 (DB 없음)
+ * <li>boxed : 이전 코드 (toOrderIds -> LinkedHashSet 중복 제거 -> groupingBy 로 HashMap&lt;Long, List&gt;)</li>
+ * <li>primitive : LongIds -> distinct() -> LongMultimap</li>
+ * <p>gc 프로파일러의 gc.alloc.rate.norm (호출당 할당 바이트)을 비교한다.</p>
+ * ./gradlew jmh -Pjmh.includes=OrderItemGroupingBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class OrderItemGroupingBenchmark {
+
+    @Param({"1000", "100000"})
+    public int orders;
+
+    @Param({"1", "3"})
+    public int itemsPerOrder;
+
+    private List<OrderQueryDto> orderDtos;
+    private List<OrderItemQueryDto> orderItems;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        orderDtos = new ArrayList<>(orders);
+        orderItems = new ArrayList<>(orders * itemsPerOrder);
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < orders; i++) {
+            long orderId = 1000L + i * 2L; // Long 캐시(-128 ~ 127) 밖의 id
+            orderDtos.add(new OrderQueryDto(orderId, "member" + i, now, OrderStatus.ORDER, null));
+            for (int j = 0; j < itemsPerOrder; j++) {
+                orderItems.add(new OrderItemQueryDto(orderId, "item" + j, 10000, 1));
+            }
+        }
+    }
+
+    @Benchmark
+    public Object boxed() {
+        List<Long> orderIds = orderDtos.stream()
+                .map(o -> o.getOrderId())
+                .collect(Collectors.toList());
+        List<Long> distinct = new ArrayList<>(new LinkedHashSet<>(orderIds));
+
+        Map<Long, List<OrderItemQueryDto>> orderItemMap = orderItems.stream()
+                .collect(Collectors.groupingBy(OrderItemQueryDto::getOrderId));
+        orderDtos.forEach(o -> o.setOrderItems(orderItemMap.get(o.getOrderId())));
+        return distinct;
+    }
+
+    @Benchmark
+    public Object primitive() {
+        Set<Long> distinct = LongIds.of(orderDtos, OrderQueryDto::getOrderId).distinct();
+
+        LongMultimap<OrderItemQueryDto> orderItemMap = LongMultimap.group(orderItems, OrderItemQueryDto::getOrderId);
+        orderDtos.forEach(o -> o.setOrderItems(orderItemMap.get(o.getOrderId())));
+        return distinct;
+    }
+}
@@ -0,0 +1,300 @@
+package jpabook.jpashop;
+
+import jpabook.jpashop.domain.*;
+import jpabook.jpashop.domain.item.Album;
+import jpabook.jpashop.domain.item.Book;
+import jpabook.jpashop.domain.item.Item;
+import jpabook.jpashop.domain.item.Movie;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.search.mapper.orm.Search;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * <h2>부하 테스트용 대량 데이터 생성</h2>
+ * <p>
+ *     InitDb 는 주문 2건뿐이라 N+1, 페치조인 중복, 페이징 차이가 보이지 않는다.
+ *     generate 프로필로 띄우면 회원/상품(Book, Album, Movie)/카테고리/주문을 설정한 수만큼 만든다.
+ * </p>
+ * <li>여러 쓰레드가 chunk 단위 트랜잭션으로 나눠서 insert 하고, flushSize 마다 flush/clear 해서 JDBC batch 로 보낸다.</li>
+ * <li>상품 인기도는 skew 로 편중시킨다. (앞쪽 상품일수록 많이 팔림)</li>
+ * <li>주문상품은 재고를 차감하지 않는다. 상품 재고는 충분히 크게 만든다.</li>
+ * <pre>
+ * ./gradlew bootRun --args='--spring.profiles.active=generate --jpashop.generator.orders=10000000'
+ * </pre>
+ */
+@Slf4j
+@Component
+@Profile("generate")
+@RequiredArgsConstructor
+public class BulkDataGenerator implements ApplicationRunner {
+
+    private static final String[] CITIES = {"서울", "부산", "대구", "인천", "광주", "대전", "울산"};
+
+    private final BulkDataProperties properties;
+    private final EntityManager em;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Environment environment;
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        generate(properties);
+    }
+
+    public void generate(BulkDataProperties props) throws InterruptedException, ExecutionException {
+        long startedAt = System.currentTimeMillis();
+        ExecutorService pool = Executors.newFixedThreadPool(props.getThreads());
+        try {
+            long[] memberIds = generate(pool, props, "member", props.getMembers(),
+                    (from, to, ids, random) -> createMembers(from, to, ids, random, props));
+
+            int[] itemPrices = new int[props.getItems()];
+            long[] itemIds = generate(pool, props, "item", props.getItems(),
+                    (from, to, ids, random) -> createItems(from, to, ids, itemPrices, random, props));
+
+            long[] categoryIds = createCategories(props, itemIds);
+
+            generate(pool, props, "order", props.getOrders(),
+                    (from, to, ids, random) -> createOrders(from, to, ids, random, props, memberIds, itemIds, itemPrices));
+
+            if (props.isReindex() && searchEnabled()) {
+                reindex(props);
+            }
+
+            log.info("대량 데이터 생성 완료 : member={}, item={}, category={}, order={} ({} ms)",
+                    memberIds.length, itemIds.length, categoryIds.length, props.getOrders(),
+                    System.currentTimeMillis() - startedAt);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * hibernate.search.enabled=false (bench 프로필) 이면 Search.mapping 이 예외를 던지므로 색인을 건너뛴다.
+     */
+    private boolean searchEnabled() {
+        return environment.getProperty("spring.jpa.properties.hibernate.search.enabled", Boolean.class, true);
+    }
+
+    /**
+     * 생성 중에는 자동 색인을 끄고(application-generate.yml) 끝난 뒤 주문을 여러 쓰레드로 한번에 색인한다.
+     */
+    private void reindex(BulkDataProperties props) throws InterruptedException {
+        long startedAt = System.currentTimeMillis();
+        Search.mapping(em.getEntityManagerFactory()).scope(Order.class).massIndexer()
+                .threadsToLoadObjects(props.getThreads())
+                .batchSizeToLoadObjects(props.getFlushSize())
+                .startAndWait();
+        log.info("전문 검색 색인 완료 ({} ms)", System.currentTimeMillis() - startedAt);
+    }
+
+    @FunctionalInterface
+    private interface ChunkWriter {
+        /**
+         * [from, to) 범위의 row 를 만들고 생성된 id 를 ids 에 채운다.
+         */
+        void write(int from, int to, long[] ids, SplittableRandom random);
+    }
+
+    /**
+     * total 개를 chunkSize 로 나눠서 쓰레드풀에서 각자 트랜잭션으로 만든다.
+     */
+    private long[] generate(ExecutorService pool, BulkDataProperties props, String label, int total, ChunkWriter writer)
+            throws InterruptedException, ExecutionException {
+        long startedAt = System.currentTimeMillis();
+        long[] ids = new long[total];
+        List<Future<?>> futures = new ArrayList<>();
+        for (int from = 0; from < total; from += props.getChunkSize()) {
+            int start = from;
+            int end = Math.min(from + props.getChunkSize(), total);
+            SplittableRandom random = new SplittableRandom(props.getSeed() * 31 + label.hashCode() * 17L + from);
+            futures.add(pool.submit(() -> transactionTemplate.executeWithoutResult(
+                    status -> writer.write(start, end, ids, random))));
+        }
+        for (Future<?> future : futures) {
+            future.get(); // 하나라도 실패하면 예외
+        }
+        long elapsed = Math.max(1, System.currentTimeMillis() - startedAt);
+        log.info("{} {}건 생성 ({} ms, {} rows/sec)", label, total, elapsed, total * 1000L / elapsed);
+        return ids;
+    }
+
+    private void flushAndClear(int written, BulkDataProperties props) {
+        if (written % props.getFlushSize() == 0) {
+            em.flush();
+            em.clear();
+        }
+    }
+
+    private void createMembers(int from, int to, long[] ids, SplittableRandom random, BulkDataProperties props) {
+        for (int i = from; i < to; i++) {
+            Member member = new Member();
+            member.setName("member" + i);
+            member.setAddress(new Address(CITIES[random.nextInt(CITIES.length)], "street" + random.nextInt(1000),
+                    String.format("%05d", random.nextInt(100_000))));
+            em.persist(member);
+            ids[i] = member.getId(); // pooled-lo 시퀀스라 persist 시점에 id 가 있다.
+            flushAndClear(i - from + 1, props);
+        }
+        em.flush();
+        em.clear();
+    }
+
+    private void createItems(int from, int to, long[] ids, int[] prices, SplittableRandom random, BulkDataProperties props) {
+        for (int i = from; i < to; i++) {
+            Item item;
+            switch (i % 3) {
+                case 0:
+                    Book book = new Book();
+                    book.setAuthor("author" + random.nextInt(10_000));
+                    book.setIsbn(String.format("978-%010d", i));
+                    item = book;
+                    break;
+                case 1:
+                    Album album = new Album();
+                    album.setArtist("artist" + random.nextInt(10_000));
+                    album.setEtc("etc");
+                    item = album;
+                    break;
+                default:
+                    Movie movie = new Movie();
+                    movie.setDirector("director" + random.nextInt(10_000));
+                    movie.setActor("actor" + random.nextInt(10_000));
+                    item = movie;
+            }
+            item.setName(item.getClass().getSimpleName().toUpperCase() + " " + i);
+            item.setPrice((random.nextInt(50) + 1) * 1000);
+            item.setStockQuantity(1_000_000_000);
+            em.persist(item);
+            ids[i] = item.getId();
+            prices[i] = item.getPrice();
+            flushAndClear(i - from + 1, props);
+        }
+        em.flush();
+        em.clear();
+    }
+
+    /**
+     * 카테고리 트리 (10% 는 최상위, 나머지는 앞에서 만든 카테고리의 하위) 를 만들고 상품마다 카테고리 1개에 연결한다.
+     */
+    private long[] createCategories(BulkDataProperties props, long[] itemIds) {
+        int total = props.getCategories();
+        long[] ids = new long[total];
+        if (total == 0) {
+            return ids;
+        }
+        Random random = new Random(props.getSeed());
+        transactionTemplate.executeWithoutResult(status -> {
+            List<Category> categories = new ArrayList<>(total);
+            int roots = Math.max(1, total / 10);
+            for (int i = 0; i < total; i++) {
+                Category category = new Category(); // 클로저 row 는 addChildCategory, persist 때 만들어진다.
+                category.setName("category" + i);
+                if (i >= roots) {
+                    categories.get(random.nextInt(i)).addChildCategory(category);
+                }
+                em.persist(category);
+                categories.add(category);
+                ids[i] = category.getId();
+            }
+            em.flush();
+        });
+
+        // 연결 테이블은 엔티티 컬렉션을 거치지 않고 JDBC batch 로 넣는다.
+        int batch = props.getFlushSize();
+        for (int from = 0; from < itemIds.length; from += props.getChunkSize()) {
+            int start = from;
+            int end = Math.min(from + props.getChunkSize(), itemIds.length);
+            transactionTemplate.executeWithoutResult(status -> {
+                List<Object[]> rows = new ArrayList<>(batch);
+                for (int i = start; i < end; i++) {
+                    rows.add(new Object[]{ids[random.nextInt(total)], itemIds[i]});
+                    if (rows.size() == batch) {
+                        jdbcTemplate.batchUpdate("insert into category_item (category_id, item_id) values (?, ?)", rows);
+                        rows.clear();
+                    }
+                }
+                if (!rows.isEmpty()) {
+                    jdbcTemplate.batchUpdate("insert into category_item (category_id, item_id) values (?, ?)", rows);
+                }
+            });
+        }
+        return ids;
+    }
+
+    private void createOrders(int from, int to, long[] ids, SplittableRandom random, BulkDataProperties props,
+                              long[] memberIds, long[] itemIds, int[] itemPrices) {
+        LocalDateTime now = LocalDateTime.now();
+        for (int batchFrom = from; batchFrom < to; batchFrom += props.getFlushSize()) {
+            int batchTo = Math.min(batchFrom + props.getFlushSize(), to);
+
+            // Order.createOrder 가 member.getOrders() 에 추가하므로 프록시가 아닌 회원이 필요하다. -> batch 단위로 IN 쿼리 한번
+            long[] orderMembers = new long[batchTo - batchFrom];
+            Set<Long> memberIdSet = new HashSet<>();
+            for (int i = 0; i < orderMembers.length; i++) {
+                orderMembers[i] = memberIds[random.nextInt(memberIds.length)];
+                memberIdSet.add(orderMembers[i]);
+            }
+            Map<Long, Member> members = new HashMap<>();
+            em.createQuery("select m from Member m where m.id in :ids", Member.class)
+                    .setParameter("ids", memberIdSet)
+                    .getResultList()
+                    .forEach(m -> members.put(m.getId(), m));
+
+            for (int i = batchFrom; i < batchTo; i++) {
+                Member member = members.get(orderMembers[i - batchFrom]);
+                int lines = random.nextInt(props.getMaxItemsPerOrder()) + 1;
+                OrderItem[] orderItems = new OrderItem[lines];
+                for (int l = 0; l < lines; l++) {
+                    int itemIndex = popularItem(random, itemIds.length, props.getSkew());
+                    Item item = em.getReference(Item.class, itemIds[itemIndex]);
+                    orderItems[l] = OrderItem.createReservedOrderItem(item, itemPrices[itemIndex], random.nextInt(5) + 1);
+                }
+
+                Delivery delivery = new Delivery();
+                delivery.setAddress(member.getAddress());
+                delivery.setStatus(random.nextInt(10) < 7 ? DeliveryStatus.COMP : DeliveryStatus.READY);
+
+                Order order = Order.createOrder(member, delivery, orderItems);
+                order.setOrderDate(now.minusMinutes(random.nextLong(props.getOrderDays() * 24L * 60)));
+                if (random.nextInt(20) == 0 && delivery.getStatus() != DeliveryStatus.COMP) {
+                    order.setStatus(OrderStatus.CANCEL);
+                }
+                em.persist(order);
+                em.persist(OrderSummary.create(order));
+                ids[i] = order.getId();
+            }
+            em.flush();
+            em.clear();
+        }
+    }
+
+    /**
+     * 0 ~ n-1 중에서 앞쪽일수록 잘 뽑히는 인덱스 (u^skew, skew=1 이면 균등)
+     */
+    private static int popularItem(SplittableRandom random, int n, double skew) {
+        return (int) (n * Math.pow(random.nextDouble(), skew));
+    }
+}
@@ -0,0 +1,52 @@
+package jpabook.jpashop;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+/**
+ * 대량 데이터 생성 설정 (jpashop.generator.*)
+ */
+@Component
+@Profile("generate")
+@ConfigurationProperties(prefix = "jpashop.generator")
+@Getter @Setter
+public class BulkDataProperties {
+
+    private int members = 100_000;
+    private int items = 10_000;
+    private int categories = 100;
+    private int orders = 1_000_000;
+    private int maxItemsPerOrder = 3;
+
+    /**
+     * 상품 인기 편중도, 1 이면 고르게 팔리고 클수록 앞쪽 상품에 주문이 몰린다.
+     */
+    private double skew = 2.0;
+
+    /**
+     * 주문일자를 오늘부터 며칠 전까지 흩뿌릴지
+     */
+    private int orderDays = 365;
+
+    private int threads = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * 트랜잭션 하나에서 만드는 row 수
+     */
+    private int chunkSize = 10_000;
+
+    /**
+     * 몇 row 마다 flush/clear 할지 (hibernate.jdbc.batch_size 와 맞춘다)
+     */
+    private int flushSize = 500;
+
+    private long seed = 42;
+
+    /**
+     * 생성이 끝난 뒤 전문 검색 인덱스를 한번에 다시 만들지
+     */
+    private boolean reindex = true;
+}
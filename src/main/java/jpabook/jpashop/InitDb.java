@@ -3,6 +3,7 @@ package jpabook.jpashop;
 import jpabook.jpashop.domain.*;
 import jpabook.jpashop.domain.item.Book;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -19,6 +20,7 @@ import javax.persistence.EntityManager;
     - SPRING2 BOOK
  */
 @Component
+@Profile("!bench & !generate") // 벤치마크와 대량 데이터 생성은 데이터를 직접 만든다.
 @RequiredArgsConstructor
 public class InitDb {
 
@@ -53,6 +55,7 @@ public class InitDb {
             Delivery delivery = createDelivery(member);
             Order order = Order.createOrder(member, delivery, orderItem1, orderItem2);
             em.persist(order);
+            em.persist(OrderSummary.create(order));
         }
 
         public void dbInit2(){
@@ -72,6 +75,7 @@ public class InitDb {
             Delivery delivery = createDelivery(member);
             Order order = Order.createOrder(member, delivery, orderItem1, orderItem2);
             em.persist(order);
+            em.persist(OrderSummary.create(order));
         }
 
         private static Member createMember(String name, String city, String street, String zipcode) {
@@ -1,6 +1,7 @@
 package jpabook.jpashop;
 
 import com.fasterxml.jackson.datatype.hibernate5.Hibernate5Module;
+import jpabook.jpashop.api.ApiJsonModule;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.Bean;
@@ -16,4 +17,10 @@ public class JpashopApplication {
 	Hibernate5Module hibernate5Module(){
 		return new Hibernate5Module();
 	}
+
+	// 주문/회원 응답 DTO 는 리플렉션 대신 전용 직렬화기로 쓴다.
+	@Bean
+	ApiJsonModule apiJsonModule(){
+		return new ApiJsonModule();
+	}
 }
@@ -0,0 +1,246 @@
+package jpabook.jpashop.api;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import jpabook.jpashop.api.OrderApiController.OrderDto;
+import jpabook.jpashop.api.OrderApiController.OrderItemDto;
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.OrderStatus;
+import jpabook.jpashop.repository.member.query.MemberOrderCountDto;
+import jpabook.jpashop.repository.order.query.OrderItemQueryDto;
+import jpabook.jpashop.repository.order.query.OrderQueryDto;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+/**
+ * <h2>주문/회원 응답 DTO 전용 직렬화기</h2>
+ * <p>
+ *     기본 직렬화는 DTO 마다 getter 를 리플렉션으로 찾아서 BeanSerializer 가 필드를 하나씩 꺼내 쓰고,
+ *     주문마다 들어있는 Address 와 LocalDateTime 도 각자의 직렬화기를 다시 찾아서 쓴다.
+ *     주문 목록/export 처럼 주문이 많은 응답에서는 이 부분이 CPU 를 가장 많이 쓰기 때문에
+ *     자주 나가는 DTO 는 필드 순서대로 JsonGenerator 에 바로 쓴다.
+ * </p>
+ * <li>출력은 기본 직렬화(스프링 부트 기본 ObjectMapper)와 같다. 필드 순서, null, 날짜 형식(ISO_LOCAL_DATE_TIME) 포함.</li>
+ * <li>필드 이름은 미리 인코딩(SerializedString)해 두고, LocalDateTime 은 문자열을 만들지 않고 char[] 에 바로 쓴다.</li>
+ * <li>DTO 에 필드를 추가하면 여기도 같이 고쳐야 한다. (ApiJsonModuleTest 가 기본 직렬화와 비교한다)</li>
+ */
+public class ApiJsonModule extends SimpleModule {
+
+    private static final SerializableString ORDER_ID = new SerializedString("orderId");
+    private static final SerializableString NAME = new SerializedString("name");
+    private static final SerializableString ORDER_DATE = new SerializedString("orderDate");
+    private static final SerializableString ORDER_STATUS = new SerializedString("orderStatus");
+    private static final SerializableString ADDRESS = new SerializedString("address");
+    private static final SerializableString ORDER_ITEMS = new SerializedString("orderItems");
+    private static final SerializableString ITEM_NAME = new SerializedString("itemName");
+    private static final SerializableString ORDER_PRICE = new SerializedString("orderPrice");
+    private static final SerializableString COUNT = new SerializedString("count");
+    private static final SerializableString CATEGORY_NAMES = new SerializedString("categoryNames");
+    private static final SerializableString CITY = new SerializedString("city");
+    private static final SerializableString STREET = new SerializedString("street");
+    private static final SerializableString ZIPCODE = new SerializedString("zipcode");
+    private static final SerializableString MEMBER_ID = new SerializedString("memberId");
+    private static final SerializableString ORDER_COUNT = new SerializedString("orderCount");
+    private static final SerializableString LAST_ORDER_DATE = new SerializedString("lastOrderDate");
+
+    public ApiJsonModule() {
+        super("ApiJsonModule");
+        addSerializer(OrderDto.class, new OrderDtoSerializer());
+        addSerializer(OrderItemDto.class, new OrderItemDtoSerializer());
+        addSerializer(OrderQueryDto.class, new OrderQueryDtoSerializer());
+        addSerializer(OrderItemQueryDto.class, new OrderItemQueryDtoSerializer());
+        addSerializer(MemberOrderCountDto.class, new MemberOrderCountDtoSerializer());
+    }
+
+    static class OrderDtoSerializer extends JsonSerializer<OrderDto> {
+        @Override
+        public void serialize(OrderDto order, JsonGenerator g, SerializerProvider provider) throws IOException {
+            g.writeStartObject(order);
+            writeLong(g, ORDER_ID, order.getOrderId());
+            writeString(g, NAME, order.getName());
+            writeDateTime(g, ORDER_DATE, order.getOrderDate());
+            writeStatus(g, ORDER_STATUS, order.getOrderStatus());
+            writeAddress(g, ADDRESS, order.getAddress());
+            g.writeFieldName(ORDER_ITEMS);
+            List<OrderItemDto> orderItems = order.getOrderItems();
+            if (orderItems == null) {
+                g.writeNull();
+            } else {
+                g.writeStartArray(orderItems, orderItems.size());
+                for (OrderItemDto orderItem : orderItems) {
+                    writeOrderItem(g, orderItem);
+                }
+                g.writeEndArray();
+            }
+            g.writeEndObject();
+        }
+    }
+
+    static class OrderItemDtoSerializer extends JsonSerializer<OrderItemDto> {
+        @Override
+        public void serialize(OrderItemDto orderItem, JsonGenerator g, SerializerProvider provider) throws IOException {
+            writeOrderItem(g, orderItem);
+        }
+    }
+
+    static class OrderQueryDtoSerializer extends JsonSerializer<OrderQueryDto> {
+        @Override
+        public void serialize(OrderQueryDto order, JsonGenerator g, SerializerProvider provider) throws IOException {
+            g.writeStartObject(order);
+            writeLong(g, ORDER_ID, order.getOrderId());
+            writeString(g, NAME, order.getName());
+            writeDateTime(g, ORDER_DATE, order.getOrderDate());
+            writeStatus(g, ORDER_STATUS, order.getOrderStatus());
+            writeAddress(g, ADDRESS, order.getAddress());
+            g.writeFieldName(ORDER_ITEMS);
+            List<OrderItemQueryDto> orderItems = order.getOrderItems();
+            if (orderItems == null) {
+                g.writeNull();
+            } else {
+                g.writeStartArray(orderItems, orderItems.size());
+                for (OrderItemQueryDto orderItem : orderItems) {
+                    writeOrderItem(g, orderItem);
+                }
+                g.writeEndArray();
+            }
+            g.writeEndObject();
+        }
+    }
+
+    static class OrderItemQueryDtoSerializer extends JsonSerializer<OrderItemQueryDto> {
+        @Override
+        public void serialize(OrderItemQueryDto orderItem, JsonGenerator g, SerializerProvider provider) throws IOException {
+            writeOrderItem(g, orderItem);
+        }
+    }
+
+    static class MemberOrderCountDtoSerializer extends JsonSerializer<MemberOrderCountDto> {
+        @Override
+        public void serialize(MemberOrderCountDto member, JsonGenerator g, SerializerProvider provider) throws IOException {
+            g.writeStartObject(member);
+            writeLong(g, MEMBER_ID, member.getMemberId());
+            writeString(g, NAME, member.getName());
+            writeAddress(g, ADDRESS, member.getAddress());
+            g.writeFieldName(ORDER_COUNT);
+            g.writeNumber(member.getOrderCount());
+            writeDateTime(g, LAST_ORDER_DATE, member.getLastOrderDate());
+            g.writeEndObject();
+        }
+    }
+
+    private static void writeOrderItem(JsonGenerator g, OrderItemDto orderItem) throws IOException {
+        g.writeStartObject(orderItem);
+        writeString(g, ITEM_NAME, orderItem.getItemName());
+        g.writeFieldName(ORDER_PRICE);
+        g.writeNumber(orderItem.getOrderPrice());
+        g.writeFieldName(COUNT);
+        g.writeNumber(orderItem.getCount());
+        g.writeEndObject();
+    }
+
+    private static void writeOrderItem(JsonGenerator g, OrderItemQueryDto orderItem) throws IOException {
+        g.writeStartObject(orderItem);
+        writeLong(g, ORDER_ID, orderItem.getOrderId());
+        writeString(g, ITEM_NAME, orderItem.getItemName());
+        g.writeFieldName(ORDER_PRICE);
+        g.writeNumber(orderItem.getOrderPrice());
+        g.writeFieldName(COUNT);
+        g.writeNumber(orderItem.getCount());
+        List<String> categoryNames = orderItem.getCategoryNames();
+        if (categoryNames != null) { // @JsonInclude(NON_NULL)
+            g.writeFieldName(CATEGORY_NAMES);
+            g.writeStartArray(categoryNames, categoryNames.size());
+            for (String categoryName : categoryNames) {
+                g.writeString(categoryName);
+            }
+            g.writeEndArray();
+        }
+        g.writeEndObject();
+    }
+
+    private static void writeAddress(JsonGenerator g, SerializableString field, Address address) throws IOException {
+        g.writeFieldName(field);
+        if (address == null) {
+            g.writeNull();
+            return;
+        }
+        g.writeStartObject(address);
+        writeString(g, CITY, address.getCity());
+        writeString(g, STREET, address.getStreet());
+        writeString(g, ZIPCODE, address.getZipcode());
+        g.writeEndObject();
+    }
+
+    private static void writeLong(JsonGenerator g, SerializableString field, Long value) throws IOException {
+        g.writeFieldName(field);
+        if (value == null) {
+            g.writeNull();
+        } else {
+            g.writeNumber(value.longValue());
+        }
+    }
+
+    private static void writeString(JsonGenerator g, SerializableString field, String value) throws IOException {
+        g.writeFieldName(field);
+        g.writeString(value); // null 이면 writeString 이 null 을 쓴다.
+    }
+
+    private static void writeStatus(JsonGenerator g, SerializableString field, OrderStatus status) throws IOException {
+        g.writeFieldName(field);
+        if (status == null) {
+            g.writeNull();
+        } else {
+            g.writeString(status.name());
+        }
+    }
+
+    private static void writeDateTime(JsonGenerator g, SerializableString field, LocalDateTime value) throws IOException {
+        g.writeFieldName(field);
+        if (value == null) {
+            g.writeNull();
+            return;
+        }
+        int year = value.getYear();
+        if (year < 0 || year > 9999) { // 부호/자릿수가 달라지는 연도는 포맷터에 맡긴다.
+            g.writeString(value.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
+            return;
+        }
+        char[] buf = new char[29]; // yyyy-MM-ddTHH:mm:ss.nnnnnnnnn
+        digits(buf, 0, year, 4);
+        buf[4] = '-';
+        digits(buf, 5, value.getMonthValue(), 2);
+        buf[7] = '-';
+        digits(buf, 8, value.getDayOfMonth(), 2);
+        buf[10] = 'T';
+        digits(buf, 11, value.getHour(), 2);
+        buf[13] = ':';
+        digits(buf, 14, value.getMinute(), 2);
+        buf[16] = ':';
+        digits(buf, 17, value.getSecond(), 2);
+        int length = 19;
+        int nano = value.getNano();
+        if (nano > 0) { // ISO_LOCAL_DATE_TIME 과 같이 끝의 0 은 쓰지 않는다.
+            buf[19] = '.';
+            digits(buf, 20, nano, 9);
+            length = 29;
+            while (buf[length - 1] == '0') {
+                length--;
+            }
+        }
+        g.writeString(buf, 0, length);
+    }
+
+    private static void digits(char[] buf, int offset, int value, int width) {
+        for (int i = offset + width - 1; i >= offset; i--) {
+            buf[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+    }
+}
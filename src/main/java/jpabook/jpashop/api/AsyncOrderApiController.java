@@ -0,0 +1,73 @@
+package jpabook.jpashop.api;
+
+import jpabook.jpashop.api.OrderApiController.OrderDto;
+import jpabook.jpashop.repository.OrderRepository;
+import jpabook.jpashop.repository.order.query.OrderFlatAssembler;
+import jpabook.jpashop.repository.order.query.OrderQueryDto;
+import jpabook.jpashop.repository.order.query.OrderQueryRepository;
+import jpabook.jpashop.service.async.DbExecutor;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * 주문 조회 API 의 비동기 버전
+ * <p>
+ *     조회는 DbExecutor(커넥션 풀 크기의 전용 쓰레드)에서 실행하고 Tomcat 요청 쓰레드는 바로 반납한다.
+ *     무거운 조회가 몰려도 /api/v2/members 같은 가벼운 API 는 요청 쓰레드를 얻을 수 있다.
+ * </p>
+ * <li>엔드포인트마다 bulkhead(jpashop.async.bulkheads) 가 있어서 한도를 넘으면 503 으로 바로 거절한다.</li>
+ * <li>DTO 변환(지연 로딩)까지 DB 쓰레드의 트랜잭션 안에서 끝낸다. (요청 쓰레드에서는 JSON 직렬화만)</li>
+ */
+@RestController
+@RequiredArgsConstructor
+public class AsyncOrderApiController {
+
+    private final DbExecutor dbExecutor;
+    private final OrderRepository orderRepository;
+    private final OrderQueryRepository orderQueryRepository;
+
+    /**
+     * V3 : 컬렉션 페치 조인 (가장 무거운 조회)
+     */
+    @GetMapping("/api/async/v3/orders")
+    public CompletableFuture<List<OrderDto>> ordersV3(){
+        return dbExecutor.supply("orders-v3", () -> orderRepository.findAllWithItem().stream()
+                .map(OrderDto::new)
+                .collect(toList()));
+    }
+
+    /**
+     * V3.1 : xToOne 페치 조인 + 페이징, 컬렉션은 batch size
+     */
+    @GetMapping("/api/async/v3.1/orders")
+    public CompletableFuture<List<OrderDto>> ordersV3_page(
+            @RequestParam(value = "offset", defaultValue = "0") int offset,
+            @RequestParam(value = "limit", defaultValue = "100") int limit){
+        return dbExecutor.supply("orders-v3-page", () -> orderRepository.findAllWithMemberDelivery(offset, limit).stream()
+                .map(OrderDto::new)
+                .collect(toList()));
+    }
+
+    /**
+     * V5 : DTO 직접 조회 + IN 절
+     */
+    @GetMapping("/api/async/v5/orders")
+    public CompletableFuture<List<OrderQueryDto>> ordersV5(){
+        return dbExecutor.supply("orders-v5", orderQueryRepository::findAllByDto_optimization);
+    }
+
+    /**
+     * V6 : 플랫 조인 한방 쿼리
+     */
+    @GetMapping("/api/async/v6/orders")
+    public CompletableFuture<List<OrderQueryDto>> ordersV6(){
+        return dbExecutor.supply("orders-v6", () -> OrderFlatAssembler.assemble(orderQueryRepository.findAllByDto_flat()));
+    }
+}
@@ -0,0 +1,30 @@
+package jpabook.jpashop.api;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * 키셋 페이징 응답
+ * <li>next : 다음 페이지를 조회할 때 cursor 로 넘길 토큰 (마지막 페이지면 null)</li>
+ */
+@Data
+@AllArgsConstructor
+class CursorResult<T> {
+    private int count;
+    private T data;
+    private String next;
+
+    /**
+     * limit 만큼 꽉 채워서 조회되었으면 다음 페이지가 있을 수 있으므로 마지막 id 로 커서를 만든다.
+     */
+    static <E> CursorResult<List<E>> of(List<E> data, int limit, Function<E, Long> idGetter) {
+        String next = null;
+        if (!data.isEmpty() && data.size() >= limit) {
+            next = CursorToken.encode(idGetter.apply(data.get(data.size() - 1)));
+        }
+        return new CursorResult<>(data.size(), data, next);
+    }
+}
@@ -0,0 +1,76 @@
+package jpabook.jpashop.api;
+
+import jpabook.jpashop.exception.InvalidPageRequestException;
+import org.springframework.util.StringUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * <h2>키셋(seek) 페이징용 커서</h2>
+ * <p>
+ *     마지막으로 내려준 id 를 클라이언트에게는 의미를 알 수 없는(opaque) 문자열로 감싸서 내려준다.
+ *     클라이언트는 받은 토큰을 그대로 다음 요청의 cursor 파라미터로 넘기면 된다.
+ * </p>
+ * <li>해석할 수 없는 커서나 0 이하의 limit, 음수 offset 은 400 (InvalidPageRequestException) 으로 응답한다.</li>
+ * <li>limit 는 MAX_LIMIT 까지만 허용한다. 더 크게 요청하면 MAX_LIMIT 로 줄여서 조회한다.</li>
+ */
+final class CursorToken {
+
+    private static final String PREFIX = "id:";
+    static final int MAX_LIMIT = 1000;
+
+    private CursorToken() {
+    }
+
+    static String encode(Long lastId) {
+        if (lastId == null) {
+            return null;
+        }
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((PREFIX + lastId).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 빈 커서는 첫 페이지를 의미하므로 null 을 반환한다.
+     */
+    static Long decode(String cursor) {
+        if (!StringUtils.hasText(cursor)) {
+            return null;
+        }
+        String raw;
+        try {
+            raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidPageRequestException("잘못된 커서입니다: " + cursor, e);
+        }
+        if (!raw.startsWith(PREFIX)) {
+            throw new InvalidPageRequestException("잘못된 커서입니다: " + cursor);
+        }
+        try {
+            return Long.valueOf(raw.substring(PREFIX.length()));
+        } catch (NumberFormatException e) {
+            throw new InvalidPageRequestException("잘못된 커서입니다: " + cursor, e);
+        }
+    }
+
+    /**
+     * 한 페이지 크기를 검사한다. 0 이하는 거절하고 MAX_LIMIT 보다 크면 MAX_LIMIT 를 반환한다.
+     */
+    static int limit(int limit) {
+        if (limit <= 0) {
+            throw new InvalidPageRequestException("limit 는 1 이상이어야 합니다: " + limit);
+        }
+        return Math.min(limit, MAX_LIMIT);
+    }
+
+    /**
+     * offset 페이징의 시작 위치를 검사한다. 음수는 거절한다.
+     */
+    static int offset(int offset) {
+        if (offset < 0) {
+            throw new InvalidPageRequestException("offset 은 0 이상이어야 합니다: " + offset);
+        }
+        return offset;
+    }
+}
@@ -2,7 +2,11 @@ package jpabook.jpashop.api;
 
 import jpabook.jpashop.domain.Member;
 import jpabook.jpashop.domain.Order;
+import jpabook.jpashop.repository.member.query.MemberOrderCountDto;
+import jpabook.jpashop.repository.member.query.MemberQueryRepository;
 import jpabook.jpashop.service.MemberService;
+import jpabook.jpashop.web.LazyLoadingAllowed;
+import jpabook.jpashop.web.ReadOnlyRequest;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
@@ -16,6 +20,7 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class MemberApiController {
     private final MemberService memberService;
+    private final MemberQueryRepository memberQueryRepository;
 
     // Insert
     @PostMapping("/api/v1/members")
@@ -70,11 +75,14 @@ public class MemberApiController {
 
     // Read
     @GetMapping("/api/v1/members")
+    @ReadOnlyRequest
     public List<Member> memberV1(){
         return memberService.findMembers();
     }
 
     @GetMapping("/api/v2/members")
+    @ReadOnlyRequest
+    @LazyLoadingAllowed // 지연 로딩 예제
     public Result memberV2(){
         List<Member> findMembers = memberService.findMembers();
 
@@ -85,6 +93,21 @@ public class MemberApiController {
         return new Result(collect.size(),collect);
     }
 
+    /**
+     * <h2>V3 : 회원 목록 + 주문 수, 마지막 주문일 (DTO 직접 조회 + 키셋 페이징)</h2>
+     * <li>V2 는 회원마다 orders 지연 로딩(N+1)이 일어나고 Order 엔티티를 통째로 직렬화한다.</li>
+     * <li>V3 는 GROUP BY 쿼리 1번으로 끝나고 엔티티를 만들지 않는다.</li>
+     * <li>cursor 를 비우면 첫 페이지, 응답의 next 를 다음 요청의 cursor 로 넘긴다.</li>
+     */
+    @GetMapping("/api/v3/members")
+    public CursorResult<List<MemberOrderCountDto>> memberV3(
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", defaultValue = "100") int limit){
+        limit = CursorToken.limit(limit);
+        List<MemberOrderCountDto> members = memberQueryRepository.findMemberOrderCounts(CursorToken.decode(cursor), limit);
+        return CursorResult.of(members, limit, MemberOrderCountDto::getMemberId);
+    }
+
     @Data
     @AllArgsConstructor
     static class MemberDto{
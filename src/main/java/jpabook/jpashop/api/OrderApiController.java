@@ -4,22 +4,39 @@ import jpabook.jpashop.domain.Address;
 import jpabook.jpashop.domain.Order;
 import jpabook.jpashop.domain.OrderItem;
 import jpabook.jpashop.domain.OrderStatus;
+import jpabook.jpashop.repository.FetchPlan;
 import jpabook.jpashop.repository.OrderRepository;
 import jpabook.jpashop.repository.OrderSearch;
+import jpabook.jpashop.repository.order.query.OrderFlatAssembler;
+import jpabook.jpashop.repository.order.query.OrderFanOutAssembler;
 import jpabook.jpashop.repository.order.query.OrderFlatDto;
-import jpabook.jpashop.repository.order.query.OrderItemQueryDto;
 import jpabook.jpashop.repository.order.query.OrderQueryDto;
 import jpabook.jpashop.repository.order.query.OrderQueryRepository;
+import jpabook.jpashop.repository.order.search.OrderSearchHit;
+import jpabook.jpashop.repository.order.search.OrderTextSearchRepository;
+import jpabook.jpashop.service.OrderCommand;
+import jpabook.jpashop.service.OrderExportService;
+import jpabook.jpashop.service.OrderQueryService;
+import jpabook.jpashop.service.OrderService;
+import jpabook.jpashop.web.LazyLoadingAllowed;
+import jpabook.jpashop.web.ReadOnlyRequest;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import javax.servlet.http.HttpServletResponse;
+import javax.validation.Valid;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Positive;
+import java.io.IOException;
 import java.time.LocalDateTime;
 import java.util.List;
-import java.util.stream.Collectors;
 
 import static java.util.stream.Collectors.*;
 
@@ -29,6 +46,11 @@ public class OrderApiController {
 
     private final OrderRepository orderRepository;
     private final OrderQueryRepository orderQueryRepository;
+    private final OrderFanOutAssembler orderFanOutAssembler;
+    private final OrderExportService orderExportService;
+    private final OrderService orderService;
+    private final OrderQueryService orderQueryService;
+    private final OrderTextSearchRepository orderTextSearchRepository;
 
     /**
      * <h2>V1 : Entity 를 직접 노출</h2>
@@ -39,6 +61,8 @@ public class OrderApiController {
      *
      */
     @GetMapping("/api/v1/orders")
+    @ReadOnlyRequest
+    @LazyLoadingAllowed // 지연 로딩 예제
     public List<Order> ordersV1(){
         List<Order> all = orderRepository.findAllByString(new OrderSearch());
         for (Order order : all) {
@@ -60,6 +84,8 @@ public class OrderApiController {
      * @return
      */
     @GetMapping("/api/v2/orders")
+    @ReadOnlyRequest
+    @LazyLoadingAllowed // 지연 로딩 예제
     public Result<?> ordersV2(){
         List<Order> orders = orderRepository.findAllByString(new OrderSearch());
         List<OrderDto> collect = orders.stream()
@@ -78,6 +104,7 @@ public class OrderApiController {
      *
      */
     @GetMapping("/api/v3/orders")
+    @ReadOnlyRequest
     public List<OrderDto> ordersV3(){
         List<Order> orders = orderRepository.findAllWithItem();
 
@@ -92,9 +119,11 @@ public class OrderApiController {
      * <li>BatchSize 를 지정하여 한꺼번에 데이터를 가져오기 때문에 쿼리도 줄어든다.</li>
      */
     @GetMapping("/api/v3.1/orders")
+    @ReadOnlyRequest
+    @LazyLoadingAllowed // 컬렉션은 default_batch_fetch_size 로 지연 로딩
     public List<OrderDto> ordersV3_page(
             @RequestParam(value = "offset", defaultValue = "0") int offset,
-            @RequestParam(value = "offset", defaultValue = "100") int limit){
+            @RequestParam(value = "limit", defaultValue = "100") int limit){
         List<Order> orders = orderRepository.findAllWithMemberDelivery(offset, limit);
 
         return orders.stream()
@@ -102,6 +131,64 @@ public class OrderApiController {
                 .collect(toList());
     }
 
+    /**
+     * <h2>V3.1 : 키셋(seek) 페이징</h2>
+     * <li>cursor 파라미터가 있으면 offset 대신 커서 기반으로 조회한다. 첫 페이지는 cursor= (빈 값)</li>
+     * <li>offset 은 앞의 row 를 모두 읽고 버리지만, 커서는 PK 인덱스로 바로 시작위치를 찾아서 페이지가 깊어져도 느려지지 않는다.</li>
+     * <li>응답의 next 를 다음 요청의 cursor 로 넘기면 된다.</li>
+     */
+    @GetMapping(value = "/api/v3.1/orders", params = "cursor")
+    @ReadOnlyRequest
+    @LazyLoadingAllowed // 컬렉션은 default_batch_fetch_size 로 지연 로딩
+    public CursorResult<List<OrderDto>> ordersV3_cursor(
+            @RequestParam("cursor") String cursor,
+            @RequestParam(value = "limit", defaultValue = "100") int limit){
+        limit = CursorToken.limit(limit);
+        List<Order> orders = orderRepository.findAllWithMemberDeliveryAfter(CursorToken.decode(cursor), limit);
+
+        List<OrderDto> collect = orders.stream()
+                .map(o -> new OrderDto(o))
+                .collect(toList());
+        return CursorResult.of(collect, limit, OrderDto::getOrderId);
+    }
+
+    /**
+     * <h2>V3.2 : 컬렉션 페치 조인 + DB 페이징 (2단계 조회)</h2>
+     * <li>주문 id 만 먼저 페이징하고, 그 id 들만 member, delivery, orderItems, item 까지 한번에 조회한다.</li>
+     * <li>V3 처럼 컬렉션까지 쿼리 한번에 가져오면서 V3.1 처럼 DB 에서 페이징한다. (쿼리 2번, 지연 로딩 없음)</li>
+     */
+    @GetMapping("/api/v3.2/orders")
+    @ReadOnlyRequest
+    public List<OrderDto> ordersV3_2(
+            @RequestParam(value = "offset", defaultValue = "0") int offset,
+            @RequestParam(value = "limit", defaultValue = "100") int limit){
+        offset = CursorToken.offset(offset);
+        limit = CursorToken.limit(limit); // 2단계 조회의 IN 절 크기도 limit 로 정해진다.
+        List<Order> orders = orderRepository.findPage(offset, limit, FetchPlan.FULL);
+
+        return orders.stream()
+                .map(o -> new OrderDto(o))
+                .collect(toList());
+    }
+
+    /**
+     * <h2>V3.2 : 키셋(seek) 페이징</h2>
+     * <li>V3.1 과 같은 커서 규칙을 사용한다.</li>
+     */
+    @GetMapping(value = "/api/v3.2/orders", params = "cursor")
+    @ReadOnlyRequest
+    public CursorResult<List<OrderDto>> ordersV3_2_cursor(
+            @RequestParam("cursor") String cursor,
+            @RequestParam(value = "limit", defaultValue = "100") int limit){
+        limit = CursorToken.limit(limit);
+        List<Order> orders = orderRepository.findPageAfter(CursorToken.decode(cursor), limit, FetchPlan.FULL);
+
+        List<OrderDto> collect = orders.stream()
+                .map(o -> new OrderDto(o))
+                .collect(toList());
+        return CursorResult.of(collect, limit, OrderDto::getOrderId);
+    }
+
     /**
      * <h2>V4 : DTO로 직접 조회</h2>
      * <li>JPQL 에서 new 키워드를 사용하여 직접 DTO 를 조회하였다.</li>
@@ -113,10 +200,25 @@ public class OrderApiController {
      * @return
      */
     @GetMapping("/api/v4/orders")
+    @ReadOnlyRequest
     public List<OrderQueryDto> ordersV4(){
         return orderQueryRepository.findByOrderQueryDtos();
     }
 
+    /**
+     * <h2>V4 : 키셋(seek) 페이징</h2>
+     * <li>V3.1 과 같은 커서 규칙을 사용한다.</li>
+     */
+    @GetMapping(value = "/api/v4/orders", params = "cursor")
+    @ReadOnlyRequest
+    public CursorResult<List<OrderQueryDto>> ordersV4_cursor(
+            @RequestParam("cursor") String cursor,
+            @RequestParam(value = "limit", defaultValue = "100") int limit){
+        limit = CursorToken.limit(limit);
+        List<OrderQueryDto> orders = orderQueryRepository.findByOrderQueryDtos(CursorToken.decode(cursor), limit);
+        return CursorResult.of(orders, limit, OrderQueryDto::getOrderId);
+    }
+
 
     /**
      * <h2>V5 : DTO로 직접 조회 - 컬렉션 조회 최적화</h2>
@@ -129,31 +231,138 @@ public class OrderApiController {
      * @return
      */
     @GetMapping("/api/v5/orders")
+    @ReadOnlyRequest
     public List<OrderQueryDto> ordersV5(){
         return orderQueryRepository.findAllByDto_optimization();
     }
 
+    /**
+     * <h2>V5 : 키셋(seek) 페이징</h2>
+     * <li>V3.1 과 같은 커서 규칙을 사용한다.</li>
+     */
+    @GetMapping(value = "/api/v5/orders", params = "cursor")
+    @ReadOnlyRequest
+    public CursorResult<List<OrderQueryDto>> ordersV5_cursor(
+            @RequestParam("cursor") String cursor,
+            @RequestParam(value = "limit", defaultValue = "100") int limit){
+        limit = CursorToken.limit(limit);
+        List<OrderQueryDto> orders = orderQueryRepository.findAllByDto_optimization(CursorToken.decode(cursor), limit);
+        return CursorResult.of(orders, limit, OrderQueryDto::getOrderId);
+    }
+
+    /**
+     * <h2>V5.1 : DTO 직접 조회 + 자식 조회 병렬 실행</h2>
+     * <li>회원, 배송, 주문상품, 상품 카테고리를 각자 별도 커넥션에서 동시에 조회해서 주문 id 로 합친다.</li>
+     * <li>주문상품에 카테고리 이름(categoryNames)이 같이 나온다.</li>
+     */
+    @GetMapping("/api/v5.1/orders")
+    public List<OrderQueryDto> ordersV5_1(){
+        return orderFanOutAssembler.findAll();
+    }
+
+    /**
+     * <h2>V5.1 : 키셋(seek) 페이징</h2>
+     * <li>페이지가 클수록(limit) 순차 실행한 V5 보다 이득이 크다.</li>
+     */
+    @GetMapping(value = "/api/v5.1/orders", params = "cursor")
+    public CursorResult<List<OrderQueryDto>> ordersV5_1_cursor(
+            @RequestParam("cursor") String cursor,
+            @RequestParam(value = "limit", defaultValue = "100") int limit){
+        limit = CursorToken.limit(limit);
+        List<OrderQueryDto> orders = orderFanOutAssembler.findAll(CursorToken.decode(cursor), limit);
+        return CursorResult.of(orders, limit, OrderQueryDto::getOrderId);
+    }
+
     /**
      * <h2>V6 : DTO로 직접 조회(플랫 데이터 최적화)</h2>
      * <li>한방쿼리로 쿼리 1개로 조회가능하다. 데이터가 커지면 V5보다 성능이 안좋을 수 있음.</li>
      * @return
      */
     @GetMapping("/api/v6/orders")
+    @ReadOnlyRequest
     public List<OrderQueryDto> ordersV6(){
 
         List<OrderFlatDto> flats = orderQueryRepository.findAllByDto_flat();
 
-        return flats.stream()
-                .collect(groupingBy(o -> new OrderQueryDto(o.getOrderId(), o.getName(), o.getOrderDate(), o.getOrderStatus(), o.getAddress()),
-                        mapping(o -> new OrderItemQueryDto(o.getOrderId(), o.getItemName(), o.getOrderPrice(), o.getCount()), toList())
-                )).entrySet().stream()
-                .map(e -> new OrderQueryDto(e.getKey().getOrderId(),
-                        e.getKey().getName(), e.getKey().getOrderDate(), e.getKey().getOrderStatus(),
-                        e.getKey().getAddress(), e.getValue()))
+        return OrderFlatAssembler.assemble(flats);
+    }
+
+    /**
+     * <h2>V6 : 키셋(seek) 페이징</h2>
+     * <li>flat 데이터를 orderId 순서로 스트리밍하면서 주문을 limit 개 조립하면 조회를 멈춘다.</li>
+     */
+    @GetMapping(value = "/api/v6/orders", params = "cursor")
+    @ReadOnlyRequest
+    public CursorResult<List<OrderQueryDto>> ordersV6_cursor(
+            @RequestParam("cursor") String cursor,
+            @RequestParam(value = "limit", defaultValue = "100") int limit){
+        limit = CursorToken.limit(limit);
+        List<OrderQueryDto> orders = orderQueryService.findOrdersFlat(CursorToken.decode(cursor), limit);
+        return CursorResult.of(orders, limit, OrderQueryDto::getOrderId);
+    }
+
+    /**
+     * <h2>V6 : 주문 전체 export (스트리밍)</h2>
+     * <li>List 로 모아서 반환하지 않고 DB 에서 스트리밍으로 읽으면서 주문 1개씩 바로 응답에 쓴다.</li>
+     * <li>응답은 NDJSON (한 줄에 주문 1개) 이고, 주문이 몇백만건이어도 메모리 사용량이 일정하다.</li>
+     */
+    @GetMapping(value = "/api/v6/orders/export", produces = "application/x-ndjson")
+    public void exportOrdersV6(HttpServletResponse response) throws IOException {
+        response.setContentType("application/x-ndjson");
+        response.setCharacterEncoding("UTF-8");
+        orderExportService.exportOrders(response.getOutputStream());
+    }
+
+    /**
+     * <h2>주문 전문 검색</h2>
+     * <li>회원 이름, 상품 이름, 저자/아티스트/감독/배우의 일부나 ISBN 으로 주문을 찾는다.</li>
+     * <li>Lucene 인덱스에서 관련도 순으로 주문 id 와 점수만 반환한다. 상세는 id 로 다시 조회한다.</li>
+     */
+    @GetMapping("/api/v1/orders/search")
+    public Result<List<OrderSearchHit>> searchOrders(
+            @RequestParam("q") String q,
+            @RequestParam(value = "limit", defaultValue = "50") int limit){
+        List<OrderSearchHit> hits = orderTextSearchRepository.search(q, limit);
+        return new Result<>(hits.size(), hits);
+    }
+
+    /**
+     * <h2>대량 주문</h2>
+     * <li>요청 한번에 여러 주문, 주문 하나에 여러 상품을 담을 수 있다.</li>
+     * <li>한 트랜잭션에서 처리되므로 하나라도 실패(재고부족 등)하면 전부 취소된다.</li>
+     */
+    @PostMapping("/api/v1/orders/bulk")
+    public Result<List<Long>> bulkOrders(@RequestBody @Valid BulkOrderRequest request){
+        List<OrderCommand> commands = request.getOrders().stream()
+                .map(o -> new OrderCommand(o.getMemberId(), o.getLines().stream()
+                        .map(l -> new OrderCommand.Line(l.getItemId(), l.getCount()))
+                        .collect(toList())))
                 .collect(toList());
+        List<Long> orderIds = orderService.orders(commands);
+        return new Result<>(orderIds.size(), orderIds);
     }
 
+    @Data
+    static class BulkOrderRequest{
+        @NotEmpty @Valid
+        private List<OrderRequest> orders;
+    }
+
+    @Data
+    static class OrderRequest{
+        @NotNull
+        private Long memberId;
+        @NotEmpty @Valid
+        private List<OrderLineRequest> lines;
+    }
 
+    @Data
+    static class OrderLineRequest{
+        @NotNull
+        private Long itemId;
+        @Positive
+        private int count;
+    }
 
     @Data
     static class OrderDto{
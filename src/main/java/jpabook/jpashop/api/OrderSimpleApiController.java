@@ -7,9 +7,14 @@ import jpabook.jpashop.repository.OrderRepository;
 import jpabook.jpashop.repository.OrderSearch;
 import jpabook.jpashop.repository.order.simplequery.OrderSimpleQueryDto;
 import jpabook.jpashop.repository.order.simplequery.OrderSimpleQueryRepository;
+import jpabook.jpashop.repository.order.summary.OrderSummaryDto;
+import jpabook.jpashop.repository.order.summary.OrderSummaryRepository;
+import jpabook.jpashop.web.LazyLoadingAllowed;
+import jpabook.jpashop.web.ReadOnlyRequest;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.time.LocalDateTime;
@@ -27,12 +32,15 @@ import java.util.stream.Collectors;
 public class OrderSimpleApiController {
     private final OrderRepository orderRepository;
     private final OrderSimpleQueryRepository orderSimpleQueryRepository;
+    private final OrderSummaryRepository orderSummaryRepository;
 
     /**
      * <h2>V1 : 엔티티를 직접 반환</h2>
      * <p>Entity 를 직접 노출하면서 무한참조가 일어나게 된다.-> API 통신시에 엔티티를 직접 노출하지 말자 </p>
      */
     @GetMapping("/api/v1/simple-orders")
+    @ReadOnlyRequest
+    @LazyLoadingAllowed // 지연 로딩 예제
     public List<Order> ordersV1() {
         List<Order> all = orderRepository.findAllByString(new OrderSearch());
         for (Order order : all) {
@@ -50,6 +58,8 @@ public class OrderSimpleApiController {
      * </p>
      */
     @GetMapping("/api/v2/simple-orders")
+    @ReadOnlyRequest
+    @LazyLoadingAllowed // 지연 로딩 예제
     public List<SimpleOrderDto> ordersV2(){
         List<Order> orders = orderRepository.findAllByString(new OrderSearch());
 
@@ -63,6 +73,7 @@ public class OrderSimpleApiController {
      * <h2>V3 : 패치 조인을 이용한 N+1 문제 해결</h2>
      */
     @GetMapping("/api/v3/simple-orders")
+    @ReadOnlyRequest
     public List<SimpleOrderDto> ordersV3(){
         List<Order> orders = orderRepository.findAllWithMemberDelivery();
         return orders.stream()
@@ -80,10 +91,29 @@ public class OrderSimpleApiController {
      * <li>단점 : 코드의 재상용성이 떨어지므로 Repository 에 별도의 패키지를 생성하여 따로 관리</li>
      */
     @GetMapping("/api/v4/simple-orders")
+    @ReadOnlyRequest
     public List<OrderSimpleQueryDto> ordersV4(){
         return orderSimpleQueryRepository.findOrderDtos();
     }
 
+    /**
+     * <h2>V5 : 주문 요약(order_summary) 테이블 조회</h2>
+     * <p>
+     *     주문/취소할때 미리 만들어 둔 요약 row 만 읽는다. 조인도 없고 총 금액을 계산하지도 않는다.
+     *     배송상태, 주문상품 수, 총 금액까지 같이 내려준다.
+     * </p>
+     * <li>V3.1 과 같은 커서 규칙으로 키셋(seek) 페이징한다.</li>
+     */
+    @GetMapping("/api/v5/simple-orders")
+    @ReadOnlyRequest
+    public CursorResult<List<OrderSummaryDto>> ordersV5(
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", defaultValue = "100") int limit){
+        limit = CursorToken.limit(limit);
+        List<OrderSummaryDto> orders = orderSummaryRepository.findSummaryDtos(CursorToken.decode(cursor), limit);
+        return CursorResult.of(orders, limit, OrderSummaryDto::getOrderId);
+    }
+
     @Data
     static class SimpleOrderDto{
         private Long orderId;
@@ -3,6 +3,7 @@ package jpabook.jpashop.controller;
 import jpabook.jpashop.domain.item.Book;
 import jpabook.jpashop.domain.item.Item;
 import jpabook.jpashop.service.ItemService;
+import jpabook.jpashop.web.ReadOnlyRequest;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import org.springframework.boot.Banner;
@@ -42,6 +43,7 @@ public class ItemController {
     }
 
     @GetMapping("/items")
+    @ReadOnlyRequest
     public String list(Model model){
         List<Item> items = itemService.findItems();
         model.addAttribute("items",items);
@@ -4,6 +4,7 @@ import javax.validation.Valid;
 import jpabook.jpashop.domain.Address;
 import jpabook.jpashop.domain.Member;
 import jpabook.jpashop.service.MemberService;
+import jpabook.jpashop.web.ReadOnlyRequest;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
@@ -43,6 +44,7 @@ public class MemberController {
     }
 
     @GetMapping("/members")
+    @ReadOnlyRequest
     public String list(Model model){
         List<Member> members = memberService.findMembers();
         model.addAttribute("members",members);
@@ -1,12 +1,13 @@
 package jpabook.jpashop.controller;
 
 import jpabook.jpashop.domain.Member;
-import jpabook.jpashop.domain.Order;
+import jpabook.jpashop.domain.OrderSummary;
 import jpabook.jpashop.domain.item.Item;
 import jpabook.jpashop.repository.OrderSearch;
 import jpabook.jpashop.service.ItemService;
 import jpabook.jpashop.service.MemberService;
 import jpabook.jpashop.service.OrderService;
+import jpabook.jpashop.web.ReadOnlyRequest;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
@@ -45,8 +46,9 @@ public class Ordercontroller {
     }
 
     @GetMapping("/orders")
+    @ReadOnlyRequest
     public String orderList(@ModelAttribute("orderSearch")OrderSearch orderSearch, Model model){
-        List<Order> orders = orderService.findOrders(orderSearch);
+        List<OrderSummary> orders = orderService.findOrderSummaries(orderSearch); //조인, 지연로딩 없이 요약 테이블만 읽는다.
         model.addAttribute("orders",orders);
 
         return "order/orderList";
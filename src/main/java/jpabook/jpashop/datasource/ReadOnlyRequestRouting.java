@@ -0,0 +1,29 @@
+package jpabook.jpashop.datasource;
+
+/**
+ * 트랜잭션 밖(open-in-view)에서 조회하는 @ReadOnlyRequest 요청을 복제본으로 보내기 위한 표시 (요청 쓰레드 단위)
+ * <p>
+ *     목록 API 는 대부분 트랜잭션 없이 open-in-view 세션에서 조회하므로 readOnly 트랜잭션 표시가 없다.
+ *     ReadOnlyRequestInterceptor 가 요청 시작에 표시하고 끝날때 지운다.
+ * </p>
+ * <li>트랜잭션이 시작되면 트랜잭션의 readOnly 설정을 따른다.</li>
+ */
+public final class ReadOnlyRequestRouting {
+
+    private static final ThreadLocal<Boolean> READ_ONLY = new ThreadLocal<>();
+
+    private ReadOnlyRequestRouting() {
+    }
+
+    public static void markReadOnly() {
+        READ_ONLY.set(Boolean.TRUE);
+    }
+
+    public static boolean isReadOnly() {
+        return READ_ONLY.get() != null;
+    }
+
+    public static void clear() {
+        READ_ONLY.remove();
+    }
+}
@@ -0,0 +1,100 @@
+package jpabook.jpashop.datasource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * <h2>읽기/쓰기 분리 DataSource</h2>
+ * <p>
+ *     @Transactional(readOnly = true) 트랜잭션과 트랜잭션 밖에서 조회하는 @ReadOnlyRequest 요청(ReadOnlyRequestRouting)은
+ *     복제본으로, 나머지(쓰기, 그 밖의 트랜잭션 밖 조회)는 primary 로 보낸다.
+ *     복제본이 뒤처졌거나 연결할 수 없으면 읽기도 primary 로 보낸다. (ReplicaLagMonitor)
+ * </p>
+ * <li>트랜잭션 매니저는 readOnly 표시를 하기 전에 커넥션을 먼저 얻으므로
+ *     반드시 LazyConnectionDataSourceProxy 로 감싸서 첫 statement 시점에 경로를 정해야 한다.</li>
+ * <li>open-in-view 세션은 처음 얻은 커넥션을 요청 끝까지 쥐고 있으므로 @ReadOnlyRequest 핸들러 안에서 쓰기 트랜잭션을 열면 안된다.</li>
+ * <li>지표 : jpashop.datasource.route{route=primary|replica|fallback} (fallback : 읽기지만 primary 로 보낸 경우)</li>
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    static final String PRIMARY = "primary";
+    static final String REPLICA = "replica";
+
+    private final DataSource primary;
+    private final DataSource replica;
+    private final ReplicaLagMonitor replicaLagMonitor;
+    private final Counter primaryRoutes;
+    private final Counter replicaRoutes;
+    private final Counter fallbackRoutes;
+
+    public ReadWriteRoutingDataSource(DataSource primary, DataSource replica,
+                                      ReplicaLagMonitor replicaLagMonitor, MeterRegistry meterRegistry) {
+        this.primary = primary;
+        this.replica = replica;
+        this.replicaLagMonitor = replicaLagMonitor;
+        this.primaryRoutes = route(meterRegistry, PRIMARY);
+        this.replicaRoutes = route(meterRegistry, REPLICA);
+        this.fallbackRoutes = route(meterRegistry, "fallback");
+
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        targets.put(REPLICA, replica);
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    private static Counter route(MeterRegistry meterRegistry, String route) {
+        return Counter.builder("jpashop.datasource.route")
+                .description("경로별 커넥션 획득 수")
+                .tag("route", route)
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!isReadOnly()) {
+            primaryRoutes.increment();
+            return PRIMARY;
+        }
+        if (!replicaLagMonitor.isAvailable()) {
+            fallbackRoutes.increment();
+            return PRIMARY;
+        }
+        replicaRoutes.increment();
+        return REPLICA;
+    }
+
+    private static boolean isReadOnly() {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+        }
+        return TransactionSynchronizationManager.isCurrentTransactionReadOnly() || ReadOnlyRequestRouting.isReadOnly();
+    }
+
+    /**
+     * 복제본 커넥션을 얻지 못하면 요청을 실패시키지 않고 primary 로 다시 시도한다.
+     */
+    @Override
+    public Connection getConnection() throws SQLException {
+        DataSource target = determineTargetDataSource();
+        if (target != replica) {
+            return target.getConnection();
+        }
+        try {
+            return replica.getConnection();
+        } catch (SQLException e) {
+            replicaLagMonitor.markUnavailable(e);
+            fallbackRoutes.increment();
+            return primary.getConnection();
+        }
+    }
+}
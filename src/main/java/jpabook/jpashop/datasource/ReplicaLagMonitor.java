@@ -0,0 +1,99 @@
+package jpabook.jpashop.datasource;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.util.StringUtils;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 복제본을 주기적으로 확인해서 읽기를 보내도 되는지 판단한다.
+ * <li>연결이 안 되거나, lagQuery 로 잰 복제 지연이 maxLag 를 넘으면 unavailable -> 읽기도 primary 로 간다.</li>
+ * <li>다음 확인에서 정상으로 돌아오면 다시 복제본을 쓴다.</li>
+ * <li>지표 : jpashop.datasource.replica.available (1/0), jpashop.datasource.replica.lag (초, 모르면 0)</li>
+ */
+@Slf4j
+public class ReplicaLagMonitor implements AutoCloseable {
+
+    private final DataSource replica;
+    private final ReplicaProperties properties;
+    private final ScheduledExecutorService checker;
+
+    private volatile boolean available;
+    private volatile double lagSeconds;
+
+    public ReplicaLagMonitor(DataSource replica, ReplicaProperties properties, MeterRegistry meterRegistry) {
+        this.replica = replica;
+        this.properties = properties;
+        Gauge.builder("jpashop.datasource.replica.available", this, m -> m.available ? 1 : 0)
+                .description("복제본으로 읽기를 보내는 중이면 1")
+                .register(meterRegistry);
+        Gauge.builder("jpashop.datasource.replica.lag", this, m -> m.lagSeconds)
+                .baseUnit("seconds")
+                .register(meterRegistry);
+
+        check(); // 첫 요청부터 상태를 알 수 있게 시작할때 한번 확인한다.
+        long intervalMs = properties.getCheckInterval().toMillis();
+        this.checker = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "replica-lag-monitor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.checker.scheduleWithFixedDelay(this::check, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    public boolean isAvailable() {
+        return available;
+    }
+
+    /**
+     * 복제본 커넥션을 얻지 못했을 때 다음 확인까지 복제본을 쓰지 않는다.
+     */
+    public void markUnavailable(SQLException e) {
+        if (available) {
+            log.warn("복제본 연결 실패, 읽기를 primary 로 보냅니다: {}", e.getMessage());
+        }
+        available = false;
+    }
+
+    void check() {
+        boolean wasAvailable = available;
+        try (Connection connection = replica.getConnection()) {
+            lagSeconds = measureLag(connection);
+            available = lagSeconds <= properties.getMaxLag().getSeconds();
+        } catch (SQLException | RuntimeException e) {
+            available = false;
+            log.debug("복제본 확인 실패", e);
+        }
+        if (wasAvailable != available) {
+            log.warn("복제본 {} (lag={}s, maxLag={})", available ? "사용" : "제외", lagSeconds, properties.getMaxLag());
+        }
+    }
+
+    private double measureLag(Connection connection) throws SQLException {
+        if (!StringUtils.hasText(properties.getLagQuery())) {
+            if (!connection.isValid(1)) {
+                throw new SQLException("복제본 커넥션이 유효하지 않습니다.");
+            }
+            return 0;
+        }
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(properties.getLagQuery())) {
+            // 복제할 것이 없으면 null 을 주는 DB 가 있다. (= 지연 없음)
+            return rs.next() ? Math.max(0, rs.getDouble(1)) : 0;
+        }
+    }
+
+    @Override
+    public void close() {
+        checker.shutdown();
+    }
+}
@@ -0,0 +1,41 @@
+package jpabook.jpashop.datasource;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * 읽기 전용 복제본 설정 (jpashop.datasource.replica.*), replica 프로필에서만 사용한다.
+ */
+@ConfigurationProperties(prefix = "jpashop.datasource.replica")
+@Getter @Setter
+public class ReplicaProperties {
+
+    private String url;
+    private String username;
+    private String password;
+    private String driverClassName;
+
+    /**
+     * 복제본 커넥션 풀 크기 (읽기가 대부분이므로 primary 보다 크게)
+     */
+    private int maximumPoolSize = 20;
+
+    /**
+     * 이보다 뒤처지면 읽기도 primary 로 보낸다.
+     */
+    private Duration maxLag = Duration.ofSeconds(5);
+
+    /**
+     * 복제 지연(초)을 돌려주는 SQL, 비워두면 연결만 확인한다.
+     * <p>예) PostgreSQL : SELECT EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp())</p>
+     */
+    private String lagQuery;
+
+    /**
+     * 복제본 상태 확인 주기
+     */
+    private Duration checkInterval = Duration.ofSeconds(1);
+}
@@ -4,15 +4,19 @@ import javax.persistence.*;
 import jpabook.jpashop.domain.item.Item;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Getter @Setter
 public class Category {
 
-    @Id @GeneratedValue
+    @Id @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "category_seq_generator")
+    @SequenceGenerator(name = "category_seq_generator", sequenceName = "category_seq", allocationSize = 50)
     @Column(name = "category_id")
     private Long id;
 
@@ -23,19 +27,79 @@ public class Category {
     @JoinTable(name = "category_item",
             joinColumns = @JoinColumn(name = "category_id"),
             inverseJoinColumns = @JoinColumn(name = "item_id"))
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE) // 컬렉션 캐시는 id 목록만 저장한다.
     private List<Item> items = new ArrayList<>();
 
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "parent_id")
     private Category parent;
 
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     @OneToMany(mappedBy = "parent")
     private List<Category> child = new ArrayList<>();
 
+    // 클로저 테이블 : 나를 자손으로 가지는 row (나 자신 포함), 이쪽에서 저장한다.
+    @OneToMany(mappedBy = "descendant", cascade = CascadeType.ALL)
+    private List<CategoryClosure> ancestors = new ArrayList<>();
+
+    // 클로저 테이블 : 나를 조상으로 가지는 row (나 자신 포함)
+    @OneToMany(mappedBy = "ancestor")
+    private List<CategoryClosure> descendants = new ArrayList<>();
+
     //== 연관관계 메서드 ==//
+    /**
+     * 자식을 붙이면서 클로저 row 도 만든다. (내 조상들(나 포함) x 자식의 자손들(자식 포함))
+     * <p>자식에게 이미 하위 트리가 있으면 하위 트리 전체가 같이 붙는다. 다른 부모로 옮기는 것은 지원하지 않는다.</p>
+     */
     public void addChildCategory(Category child){
+        if (child.getParent() != null) {
+            throw new IllegalStateException("이미 상위 카테고리가 있습니다.");
+        }
+        addSelfClosure();
+        child.addSelfClosure();
+        List<CategoryClosure> upper = new ArrayList<>(this.ancestors);
+        List<CategoryClosure> lower = new ArrayList<>(child.descendants);
+        for (CategoryClosure up : upper) {
+            if (isSameCategory(up.getAncestor(), child)) {
+                throw new IllegalArgumentException("하위 카테고리를 상위로 붙일 수 없습니다.");
+            }
+        }
+
         this.child.add(child);
         child.setParent(this);
+
+        for (CategoryClosure up : upper) {
+            for (CategoryClosure down : lower) {
+                CategoryClosure closure = CategoryClosure.create(up.getAncestor(), down.getDescendant(), up.getDepth() + down.getDepth() + 1);
+                down.getDescendant().getAncestors().add(closure); // 프록시일 수 있으므로 getter 로 접근
+                up.getAncestor().getDescendants().add(closure);
+            }
+        }
+    }
+
+    /**
+     * 클로저 row 의 조상은 프록시일 수 있으므로 == 가 아니라 id 로 비교한다. (저장 전이라 id 가 없으면 같은 객체인지만 본다)
+     */
+    private static boolean isSameCategory(Category a, Category b){
+        if (a == b) {
+            return true;
+        }
+        return a.getId() != null && a.getId().equals(b.getId());
+    }
+
+    /**
+     * 자식이 없는 카테고리도 하위 트리 조회에 자기 자신이 나오도록 depth 0 row 를 둔다.
+     */
+    @PrePersist
+    private void addSelfClosure(){
+        for (CategoryClosure closure : ancestors) {
+            if (closure.getDepth() == 0) {
+                return;
+            }
+        }
+        CategoryClosure self = CategoryClosure.create(this, this, 0);
+        ancestors.add(self);
+        descendants.add(self);
     }
 
 }
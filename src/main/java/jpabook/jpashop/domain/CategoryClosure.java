@@ -0,0 +1,48 @@
+package jpabook.jpashop.domain;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+
+/**
+ * 카테고리 클로저 테이블 : 조상-자손 쌍마다 한 row (자기 자신도 depth 0 으로 포함)
+ * <p>
+ *     parent/child 만으로는 하위 트리를 읽을때 단계마다 쿼리가 나간다.
+ *     클로저 row 가 있으면 하위 트리, 조상 목록, 하위 트리의 상품을 깊이와 상관없이 쿼리 1번으로 조회할 수 있다.
+ * </p>
+ * Category.addChildCategory 에서만 만들어진다.
+ */
+@Entity
+@Table(name = "category_closure",
+        uniqueConstraints = @UniqueConstraint(name = "uk_category_closure_ancestor_descendant", columnNames = {"ancestor_id", "descendant_id"}),
+        indexes = @Index(name = "idx_category_closure_descendant", columnList = "descendant_id, depth"))
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class CategoryClosure {
+
+    @Id @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "category_closure_seq_generator")
+    @SequenceGenerator(name = "category_closure_seq_generator", sequenceName = "category_closure_seq", allocationSize = 50)
+    @Column(name = "category_closure_id")
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "ancestor_id")
+    private Category ancestor;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "descendant_id")
+    private Category descendant;
+
+    private int depth; // ancestor 에서 descendant 까지 단계 수
+
+    //==생성 메서드==//
+    static CategoryClosure create(Category ancestor, Category descendant, int depth){
+        CategoryClosure closure = new CategoryClosure();
+        closure.ancestor = ancestor;
+        closure.descendant = descendant;
+        closure.depth = depth;
+        return closure;
+    }
+}
@@ -7,9 +7,11 @@ import lombok.Getter;
 import lombok.Setter;
 
 @Entity
+@Table(indexes = @Index(name = "idx_delivery_status", columnList = "status"))
 @Getter @Setter
 public class Delivery {
-    @Id @GeneratedValue
+    @Id @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "delivery_seq_generator")
+    @SequenceGenerator(name = "delivery_seq_generator", sequenceName = "delivery_seq", allocationSize = 50)
     @Column(name = "delivery_id")
     private Long id;
 
@@ -21,5 +23,5 @@ public class Delivery {
     private Address address;
 
     @Enumerated(EnumType.STRING)
-    private DeliveryStatus status; // enum [READY, COMP]
+    private DeliveryStatus status; // enum [READY, COMP], 주문 후에는 OrderService.changeDeliveryStatus 로 바꾼다. (주문 요약 동기화)
 }
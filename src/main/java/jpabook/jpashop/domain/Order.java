@@ -3,24 +3,48 @@ package jpabook.jpashop.domain;
 import javax.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.search.mapper.pojo.mapping.definition.annotation.Indexed;
+import org.hibernate.search.mapper.pojo.mapping.definition.annotation.IndexedEmbedded;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity @Getter @Setter
-@Table(name = "orders")
+@Table(name = "orders", indexes = { // 주문 검색 (OrderRepository.search) 조건별 인덱스, 모두 최근 주문순으로 읽을 수 있게 order_date 를 붙인다.
+        @Index(name = "idx_orders_status_order_date", columnList = "status, order_date"),
+        @Index(name = "idx_orders_member_order_date", columnList = "member_id, order_date"),
+        @Index(name = "idx_orders_order_date", columnList = "order_date")})
+@Indexed(index = "order") // 전문 검색 : 회원 이름, 주문상품 이름 등으로 주문을 찾는다. (OrderTextSearchRepository)
+// 조회할 때 같이 가져올 연관관계 (FetchPlan 으로 골라서 쓴다)
+@NamedEntityGraphs({
+        @NamedEntityGraph(name = "Order.summary", attributeNodes = {
+                @NamedAttributeNode("member"),
+                @NamedAttributeNode("delivery")}),
+        @NamedEntityGraph(name = "Order.withItems", attributeNodes = {
+                @NamedAttributeNode(value = "orderItems", subgraph = "orderItems")},
+                subgraphs = @NamedSubgraph(name = "orderItems", attributeNodes = @NamedAttributeNode("item"))),
+        @NamedEntityGraph(name = "Order.full", attributeNodes = {
+                @NamedAttributeNode("member"),
+                @NamedAttributeNode("delivery"),
+                @NamedAttributeNode(value = "orderItems", subgraph = "orderItems")},
+                subgraphs = @NamedSubgraph(name = "orderItems", attributeNodes = @NamedAttributeNode("item")))
+})
 public class Order {
 
-    @Id @GeneratedValue
+    // 시퀀스를 50씩 한번에 받아와서(pooled-lo) insert 마다 시퀀스를 조회하는 왕복을 없앤다. (SEQUENCE 라서 JDBC batch 는 원래 가능)
+    @Id @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_seq_generator")
+    @SequenceGenerator(name = "order_seq_generator", sequenceName = "orders_seq", allocationSize = 50)
     @Column(name = "order_id")
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY) // Order(다) : Member(일) 관계
     @JoinColumn(name = "member_id")
+    @IndexedEmbedded
     private Member member;
 
     @OneToMany(mappedBy = "order", cascade = CascadeType.ALL) //order가 persist되면 orderItem도 persist가 된다.
+    @IndexedEmbedded
     private List<OrderItem> orderItems = new ArrayList<>();
 
     @OneToOne(fetch = FetchType.LAZY, cascade = CascadeType.ALL)
@@ -50,6 +74,9 @@ public class Order {
 
     //==생성 메서드==//
     public static Order createOrder(Member member, Delivery delivery, OrderItem... orderItems){
+        if(orderItems.length == 0){
+            throw new IllegalStateException("주문상품이 없는 주문은 만들 수 없습니다.");
+        }
         Order order = new Order();
         order.setMember(member);
         order.setDelivery(delivery);
@@ -66,12 +93,19 @@ public class Order {
      * 주문 취소
      */
     public void cancel(){
+        cancel(StockReturn.DIRECT);
+    }
+
+    /**
+     * 주문 취소 (재고를 돌려줄 곳을 지정)
+     */
+    public void cancel(StockReturn stockReturn){
         if(delivery.getStatus() == DeliveryStatus.COMP){
             throw  new IllegalStateException("이미 배송완료된 상품은 취소가 불가능합니다.");
         }
         this.setStatus(OrderStatus.CANCEL);
         for(OrderItem orderItem : this.orderItems){
-            orderItem.cancel();
+            orderItem.cancel(stockReturn);
         }
     }
 
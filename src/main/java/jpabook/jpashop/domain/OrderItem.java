@@ -6,17 +6,23 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 import jpabook.jpashop.domain.item.Item;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.search.mapper.pojo.automaticindexing.ReindexOnUpdate;
+import org.hibernate.search.mapper.pojo.mapping.definition.annotation.IndexedEmbedded;
+import org.hibernate.search.mapper.pojo.mapping.definition.annotation.IndexingDependency;
 
 @Entity
 @Getter @Setter
 public class OrderItem {
 
-    @Id @GeneratedValue
+    @Id @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_item_seq_generator")
+    @SequenceGenerator(name = "order_item_seq_generator", sequenceName = "order_item_seq", allocationSize = 50)
     @Column(name = "order_item_id")
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "item_id")
+    @IndexedEmbedded
+    @IndexingDependency(reindexOnUpdate = ReindexOnUpdate.SHALLOW) // 상품 이름이 바뀌어도 그 상품의 주문 전체를 다시 색인하지 않는다.
     private Item item;
 
     @JsonIgnore
@@ -38,9 +44,25 @@ public class OrderItem {
         return orderItem;
     }
 
+    /**
+     * 재고가 이미 차감(예약)된 상품으로 주문상품 생성
+     * <p>재고 차감을 조건부 UPDATE 등으로 따로 처리한 경우에 사용한다. 여기서 또 차감하면 두번 빠진다.</p>
+     */
+    public static OrderItem createReservedOrderItem(Item item, int orderPrice, int count){
+        OrderItem orderItem = new OrderItem();
+        orderItem.setItem(item);
+        orderItem.setOrderPrice(orderPrice);
+        orderItem.setCount(count);
+        return orderItem;
+    }
+
     //==비즈니스 로직==//
     public void cancel(){
-        getItem().addStock(count); //주문수량만큼 재고를 더해준다.
+        cancel(StockReturn.DIRECT);
+    }
+
+    public void cancel(StockReturn stockReturn){
+        stockReturn.returnStock(getItem(), count); //주문수량만큼 재고를 더해준다.
     }
 
     //==조회 로직==//
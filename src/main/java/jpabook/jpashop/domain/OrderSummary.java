@@ -0,0 +1,84 @@
+package jpabook.jpashop.domain;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * 주문 목록 조회용 요약 (읽기 모델)
+ * <p>
+ *     주문 목록은 매번 orders, member, delivery 를 조인하고 총 금액을 구하려고 orderItems 를 지연 로딩한다.
+ *     목록에 필요한 값을 주문 생성/취소 트랜잭션에서 미리 한 row 로 만들어 두고, 목록은 이 테이블만 읽는다.
+ * </p>
+ * <li>id 는 주문 id 를 그대로 쓴다.</li>
+ * <li>대표상품은 첫번째 주문상품이다. (주문 목록 화면)</li>
+ * <li>OrderService 주문/취소/배송상태 변경, MemberService 이름 변경에서 같이 갱신한다.</li>
+ */
+@Entity
+@Table(name = "order_summary", indexes = {
+        @Index(name = "idx_order_summary_status", columnList = "status, order_id"),
+        @Index(name = "idx_order_summary_member_name", columnList = "member_name, order_id"),
+        @Index(name = "idx_order_summary_member_id", columnList = "member_id"),
+        @Index(name = "idx_order_summary_order_date", columnList = "order_date")})
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class OrderSummary {
+
+    @Id
+    @Column(name = "order_id")
+    private Long orderId;
+
+    @Column(name = "member_id")
+    private Long memberId;
+
+    @Column(name = "member_name")
+    private String memberName;
+
+    private LocalDateTime orderDate;
+
+    @Enumerated(EnumType.STRING)
+    private OrderStatus status;
+
+    @Enumerated(EnumType.STRING)
+    private DeliveryStatus deliveryStatus;
+
+    @Embedded
+    private Address address; //배송지
+
+    private String itemName; //대표상품 이름
+    private int orderPrice; //대표상품 주문가격
+    private int count; //대표상품 주문수량
+
+    private int itemCount; //주문상품 종류 수
+    private int totalPrice;
+
+    //==생성 메서드==//
+    /**
+     * 방금 만든 주문으로 요약을 만든다. (주문상품이 메모리에 있으므로 추가 조회가 없다)
+     */
+    public static OrderSummary create(Order order){
+        OrderSummary summary = new OrderSummary();
+        summary.orderId = order.getId();
+        summary.memberId = order.getMember().getId();
+        summary.memberName = order.getMember().getName();
+        summary.orderDate = order.getOrderDate();
+        summary.status = order.getStatus();
+        summary.deliveryStatus = order.getDelivery().getStatus();
+        summary.address = order.getDelivery().getAddress();
+
+        if (order.getOrderItems().isEmpty()) {
+            throw new IllegalStateException("주문상품이 없는 주문은 요약을 만들 수 없습니다.");
+        }
+        OrderItem first = order.getOrderItems().get(0);
+        summary.itemName = first.getItem().getName();
+        summary.orderPrice = first.getOrderPrice();
+        summary.count = first.getCount();
+
+        summary.itemCount = order.getOrderItems().size();
+        summary.totalPrice = order.getTotalPrice();
+        return summary;
+    }
+}
@@ -0,0 +1,49 @@
+package jpabook.jpashop.domain;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * 재고 변경 장부 (플래시 세일 상품용)
+ * <p>
+ *     플래시 세일 상품은 주문할때 item row 를 수정하지 않고 장부에 한줄만 insert 한다.
+ *     주문과 같은 트랜잭션에서 커밋되므로, 서버가 죽어도 아직 item 에 반영되지 않은 재고 변경이 여기 남아있다.
+ * </p>
+ * <li>quantity > 0 : 재고 차감(주문), quantity < 0 : 재고 반환(취소)</li>
+ */
+@Entity
+@Getter @Setter
+public class StockLedger {
+
+    @Id @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "stock_ledger_seq_generator")
+    @SequenceGenerator(name = "stock_ledger_seq_generator", sequenceName = "stock_ledger_seq", allocationSize = 50)
+    @Column(name = "stock_ledger_id")
+    private Long id;
+
+    @Column(name = "item_id")
+    private Long itemId;
+
+    private int quantity;
+
+    private LocalDateTime createdAt;
+
+    //==생성 메서드==//
+    public static StockLedger reserve(Long itemId, int count){
+        return create(itemId, count);
+    }
+
+    public static StockLedger release(Long itemId, int count){
+        return create(itemId, -count);
+    }
+
+    private static StockLedger create(Long itemId, int quantity){
+        StockLedger ledger = new StockLedger();
+        ledger.setItemId(itemId);
+        ledger.setQuantity(quantity);
+        ledger.setCreatedAt(LocalDateTime.now());
+        return ledger;
+    }
+}
@@ -0,0 +1,15 @@
+package jpabook.jpashop.domain;
+
+import jpabook.jpashop.domain.item.Item;
+
+/**
+ * 주문 취소시 재고를 어디로 돌려줄지
+ * <p>기본은 상품 엔티티의 재고를 늘리는 것이고, 플래시 세일 상품처럼 재고를 따로 관리하면 그쪽으로 돌려준다.</p>
+ */
+@FunctionalInterface
+public interface StockReturn {
+
+    StockReturn DIRECT = (item, count) -> item.addStock(count);
+
+    void returnStock(Item item, int count);
+}
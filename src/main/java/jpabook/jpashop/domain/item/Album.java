@@ -4,12 +4,14 @@ import javax.persistence.DiscriminatorValue;
 import javax.persistence.Entity;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.search.mapper.pojo.mapping.definition.annotation.FullTextField;
 
 @Entity
 @DiscriminatorValue("A")
 @Getter @Setter
 public class Album extends Item{
 
+    @FullTextField(analyzer = "name")
     private String artist;
     private String etc;
 }
@@ -6,6 +6,9 @@ import jpabook.jpashop.domain.Category;
 import jpabook.jpashop.exception.NotEnoughStockException;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.search.mapper.pojo.mapping.definition.annotation.FullTextField;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -18,18 +21,24 @@ import java.util.List;
  * TABLE_PER_CLASS :
  */
 @DiscriminatorColumn(name = "dtype") //SINGLE_TABLE에서 구분하기위해
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE) // 2차 캐시는 루트에만 붙인다. (Book, Album, Movie 가 같은 region 을 쓴다)
 @Getter @Setter
 public abstract class Item {
 
     @Id
-    @GeneratedValue
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "item_seq_generator")
+    @SequenceGenerator(name = "item_seq_generator", sequenceName = "item_seq", allocationSize = 50)
     @Column(name = "item_id")
     private Long id;
 
+    @FullTextField(analyzer = "name")
     private String name;
     private int price;
     private int stockQuantity;
 
+    @Version // 동시에 재고를 수정하면 나중에 커밋하는 쪽이 실패한다.(낙관적 락)
+    private Long version;
+
     @ManyToMany(mappedBy = "items")
     private List<Category> categories = new ArrayList<>();
 
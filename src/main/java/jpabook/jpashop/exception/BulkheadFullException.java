@@ -0,0 +1,16 @@
+package jpabook.jpashop.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * 엔드포인트별 동시 실행 한도(bulkhead)가 찼거나 DB 작업 큐가 가득 찼을 때
+ * <p>기다리게 하지 않고 바로 503 으로 돌려보내서 다른 엔드포인트의 자원을 지킨다.</p>
+ */
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class BulkheadFullException extends RuntimeException{
+
+    public BulkheadFullException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,20 @@
+package jpabook.jpashop.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * 커서 페이징 요청의 cursor 를 해석할 수 없거나 limit 가 0 이하일 때
+ * <p>클라이언트가 잘못 보낸 값이므로 500 이 아니라 400 으로 돌려보낸다.</p>
+ */
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidPageRequestException extends RuntimeException{
+
+    public InvalidPageRequestException(String message) {
+        super(message);
+    }
+
+    public InvalidPageRequestException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
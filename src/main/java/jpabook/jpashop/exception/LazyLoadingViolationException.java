@@ -0,0 +1,15 @@
+package jpabook.jpashop.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * 요청 중에 fetch plan 에 없는 연관관계가 지연 로딩되었을 때 (jpashop.lazy-load-guard.mode=FAIL)
+ */
+@ResponseStatus(HttpStatus.INTERNAL_SERVER_ERROR)
+public class LazyLoadingViolationException extends RuntimeException{
+
+    public LazyLoadingViolationException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,15 @@
+package jpabook.jpashop.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * 요청 하나가 설정된 SQL 예산(statement 수, 같은 SQL 반복 횟수)을 넘었을 때 (jpashop.sql-budget.mode=FAIL)
+ */
+@ResponseStatus(HttpStatus.INTERNAL_SERVER_ERROR)
+public class SqlBudgetExceededException extends RuntimeException{
+
+    public SqlBudgetExceededException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,43 @@
+package jpabook.jpashop.monitor;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.JCacheMetrics;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.cache.jcache.internal.JCacheRegionFactory;
+import org.hibernate.cache.spi.RegionFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import javax.cache.CacheManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.Collections;
+
+/**
+ * 2차 캐시 region 별 JCache 통계(cache.gets hit/miss, cache.puts, cache.evictions, cache.removals)를 Micrometer 에 등록한다.
+ * <li>적중률은 hibernate-micrometer 가 등록하는 hibernate.second.level.cache.requests 로도 볼 수 있다.</li>
+ * <li>ehcache.xml 에서 enable-statistics 를 켜야 값이 나온다.</li>
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CacheMetricsConfig {
+
+    private final EntityManagerFactory emf;
+    private final MeterRegistry meterRegistry;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void bindCacheMetrics() {
+        RegionFactory regionFactory = emf.unwrap(SessionFactoryImplementor.class).getCache().getRegionFactory();
+        if (!(regionFactory instanceof JCacheRegionFactory)) {
+            return; // 2차 캐시를 끈 경우
+        }
+        CacheManager cacheManager = ((JCacheRegionFactory) regionFactory).getCacheManager();
+        for (String name : cacheManager.getCacheNames()) {
+            JCacheMetrics.monitor(meterRegistry, cacheManager.getCache(name), Collections.emptyList());
+        }
+        log.info("2차 캐시 지표 등록 : {}", cacheManager.getCacheNames());
+    }
+}
@@ -0,0 +1,65 @@
+package jpabook.jpashop.monitor;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 요청 하나에서 일어난 계획에 없는 지연 로딩 (프록시 초기화, 컬렉션 초기화)
+ * <p>
+ *     요청 쓰레드의 ThreadLocal 에 담아 두고 Hibernate 리스너(LazyLoadGuardListener)가 채운다.
+ *     조회할 때 fetch plan(entity graph, join fetch)으로 가져온 연관관계는 이미 초기화되어 있어서 잡히지 않는다.
+ * </p>
+ */
+public class LazyLoadGuard {
+
+    public enum Mode {
+        /** 검사하지 않는다. */
+        OFF,
+        /** 요청이 끝날때 경고 로그만 남긴다. */
+        LOG,
+        /** 지연 로딩이 일어나는 순간 LazyLoadingViolationException (테스트, CI 용) */
+        FAIL
+    }
+
+    private static final ThreadLocal<LazyLoadGuard> CURRENT = new ThreadLocal<>();
+
+    private final Mode mode;
+
+    /**
+     * key : 엔티티 이름 또는 컬렉션 role (예: jpabook.jpashop.domain.Order.orderItems), value : 횟수
+     */
+    private final Map<String, Integer> violations = new LinkedHashMap<>();
+
+    private LazyLoadGuard(Mode mode) {
+        this.mode = mode;
+    }
+
+    public static LazyLoadGuard start(Mode mode) {
+        LazyLoadGuard guard = new LazyLoadGuard(mode);
+        CURRENT.set(guard);
+        return guard;
+    }
+
+    /**
+     * @return 검사 중이 아니면 null
+     */
+    public static LazyLoadGuard current() {
+        return CURRENT.get();
+    }
+
+    public static void clear() {
+        CURRENT.remove();
+    }
+
+    Mode getMode() {
+        return mode;
+    }
+
+    void violated(String target) {
+        violations.merge(target, 1, Integer::sum);
+    }
+
+    public Map<String, Integer> getViolations() {
+        return violations;
+    }
+}
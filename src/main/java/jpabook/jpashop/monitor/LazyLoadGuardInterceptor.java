@@ -0,0 +1,61 @@
+package jpabook.jpashop.monitor;
+
+import jpabook.jpashop.web.LazyLoadingAllowed;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * 핸들러 실행 ~ 응답 직렬화/뷰 렌더링까지 LazyLoadGuard 를 켠다. (jpashop.lazy-load-guard.mode)
+ * <li>@LazyLoadingAllowed 핸들러는 검사하지 않는다.</li>
+ * <li>LOG 모드는 요청이 끝날때 지연 로딩된 엔티티/컬렉션별 횟수를 경고로 남긴다.</li>
+ * <li>비동기/병렬 조회 쓰레드에서 일어난 지연 로딩은 잡히지 않는다.</li>
+ * <li>비동기 핸들러(CompletableFuture)는 요청 쓰레드에서 afterCompletion 이 불리지 않으므로
+ *     afterConcurrentHandlingStarted 에서 지운다. 그래야 같은 Tomcat 쓰레드의 다음 요청으로 새지 않는다.</li>
+ */
+@Slf4j
+@Component
+public class LazyLoadGuardInterceptor implements AsyncHandlerInterceptor {
+
+    private final LazyLoadGuard.Mode mode;
+
+    public LazyLoadGuardInterceptor(@Value("${jpashop.lazy-load-guard.mode:LOG}") LazyLoadGuard.Mode mode) {
+        this.mode = mode;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        LazyLoadGuard.clear(); // 이전 요청에서 남은 guard 가 있어도 이 요청에 적용되지 않게
+        if (mode == LazyLoadGuard.Mode.OFF || !(handler instanceof HandlerMethod)
+                || ((HandlerMethod) handler).hasMethodAnnotation(LazyLoadingAllowed.class)) {
+            return true;
+        }
+        LazyLoadGuard.start(mode);
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        LazyLoadGuard.clear(); // 비동기 재디스패치에서 preHandle 이 다시 불리고 그때 새로 시작한다.
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        LazyLoadGuard guard = LazyLoadGuard.current();
+        if (guard == null) {
+            return;
+        }
+        try {
+            if (!guard.getViolations().isEmpty()) {
+                log.warn("[{} {}] fetch plan 에 없는 지연 로딩: {}", request.getMethod(), request.getRequestURI(), guard.getViolations());
+            }
+        } finally {
+            LazyLoadGuard.clear();
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package jpabook.jpashop.monitor;
+
+import jpabook.jpashop.exception.LazyLoadingViolationException;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.HibernateException;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.InitializeCollectionEvent;
+import org.hibernate.event.spi.InitializeCollectionEventListener;
+import org.hibernate.event.spi.LoadEvent;
+import org.hibernate.event.spi.LoadEventListener;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManagerFactory;
+
+/**
+ * 지연 로딩을 Hibernate 이벤트에서 가로챈다.
+ * <li>프록시 초기화 : LoadEvent 의 IMMEDIATE_LOAD (em.find / getReference 는 다른 LoadType 이라 잡히지 않는다)</li>
+ * <li>컬렉션 초기화 : InitializeCollectionEvent (이미 초기화된 컬렉션은 제외)</li>
+ * <p>기본 리스너보다 앞에 등록해서 FAIL 모드면 SQL 이 나가기 전에 예외를 던진다.</p>
+ */
+@Component
+@RequiredArgsConstructor
+public class LazyLoadGuardListener implements LoadEventListener, InitializeCollectionEventListener {
+
+    private final EntityManagerFactory emf;
+
+    @PostConstruct
+    public void register() {
+        EventListenerRegistry registry = emf.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry().getService(EventListenerRegistry.class);
+        registry.prependListeners(EventType.LOAD, this);
+        registry.prependListeners(EventType.INIT_COLLECTION, this);
+    }
+
+    @Override
+    public void onLoad(LoadEvent event, LoadType loadType) throws HibernateException {
+        if (loadType == LoadEventListener.IMMEDIATE_LOAD) {
+            violated(event.getEntityClassName() + "#" + event.getEntityId(), event.getEntityClassName());
+        }
+    }
+
+    @Override
+    public void onInitializeCollection(InitializeCollectionEvent event) throws HibernateException {
+        if (!event.getCollection().wasInitialized()) {
+            violated(event.getCollection().getRole() + "#" + event.getAffectedOwnerIdOrNull(), event.getCollection().getRole());
+        }
+    }
+
+    private static void violated(String detail, String target) {
+        LazyLoadGuard guard = LazyLoadGuard.current();
+        if (guard == null) {
+            return;
+        }
+        if (guard.getMode() == LazyLoadGuard.Mode.FAIL) {
+            throw new LazyLoadingViolationException("fetch plan 에 없는 지연 로딩: " + detail);
+        }
+        guard.violated(target);
+    }
+}
@@ -0,0 +1,63 @@
+package jpabook.jpashop.monitor;
+
+import jpabook.jpashop.exception.SqlBudgetExceededException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+import javax.servlet.http.HttpServletRequest;
+
+/**
+ * @ResponseBody 응답을 쓰기 직전에 (헤더를 아직 붙일 수 있을 때) SQL 통계를 헤더로 내보내고 예산을 검사한다.
+ * <li>X-Sql-Statements, X-Sql-Chunk-Statements, X-Sql-Time-Ms, X-Sql-Rows, X-Sql-Max-Repeats</li>
+ * <li>FAIL 모드에서 예산을 넘으면 SqlBudgetExceededException (500)</li>
+ * <li>엔티티를 그대로 반환하는 경우 직렬화 중 지연 로딩은 아직 실행 전이라 헤더/예산에 들어가지 않는다. (지표에는 들어간다)</li>
+ */
+@ControllerAdvice
+@RequiredArgsConstructor
+public class SqlBudgetAdvice implements ResponseBodyAdvice<Object> {
+
+    private final SqlBudgetMonitor monitor;
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        SqlStatistics statistics = SqlStatistics.current();
+        if (statistics == null || !(request instanceof ServletServerHttpRequest)) {
+            return body;
+        }
+        HttpServletRequest servletRequest = ((ServletServerHttpRequest) request).getServletRequest();
+        String uri = SqlBudgetMonitor.uriOf(servletRequest);
+        if (uri == null) {
+            return body;
+        }
+
+        if (monitor.isHeaders()) {
+            HttpHeaders headers = response.getHeaders();
+            headers.set("X-Sql-Statements", String.valueOf(statistics.getStatements()));
+            headers.set("X-Sql-Chunk-Statements", String.valueOf(statistics.getChunkStatements()));
+            headers.set("X-Sql-Time-Ms", String.valueOf(statistics.getElapsedMillis()));
+            headers.set("X-Sql-Rows", String.valueOf(statistics.getRows()));
+            headers.set("X-Sql-Max-Repeats", String.valueOf(statistics.getMaxRepeats()));
+        }
+
+        String violation = monitor.check(servletRequest.getMethod(), uri, statistics);
+        if (violation != null && monitor.isFailMode()) {
+            throw new SqlBudgetExceededException(servletRequest.getMethod() + " " + uri + " : " + violation);
+        }
+        return body;
+    }
+}
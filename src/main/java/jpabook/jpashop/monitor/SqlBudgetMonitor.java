@@ -0,0 +1,105 @@
+package jpabook.jpashop.monitor;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jpabook.jpashop.monitor.SqlBudgetProperties.Budget;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.http.HttpServletRequest;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 요청의 SQL 통계를 예산과 비교하고 Micrometer 지표로 남긴다.
+ * <li>jpashop.sql.statements, jpashop.sql.rows : 요청당 statement/row 수 분포</li>
+ * <li>jpashop.sql.time : 요청당 DB 시간</li>
+ * <li>jpashop.sql.budget.exceeded : 예산 초과 횟수 (kind=statements|repeats)</li>
+ * 태그는 method, uri(핸들러 매핑 패턴) 이다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SqlBudgetMonitor {
+
+    private final SqlBudgetProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    public boolean isFailMode() {
+        return properties.getMode() == SqlBudgetProperties.Mode.FAIL;
+    }
+
+    public boolean isHeaders() {
+        return properties.isHeaders();
+    }
+
+    /**
+     * @return 컨트롤러에 매핑되지 않은 요청(정적 리소스 등)이면 null
+     */
+    static String uriOf(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return pattern != null ? pattern.toString() : null;
+    }
+
+    /**
+     * 요청이 끝난 뒤의 최종 통계를 지표로 남긴다.
+     */
+    public void record(String method, String uri, SqlStatistics statistics) {
+        DistributionSummary.builder("jpashop.sql.statements")
+                .tag("method", method).tag("uri", uri)
+                .register(meterRegistry)
+                .record(statistics.getStatements());
+        DistributionSummary.builder("jpashop.sql.rows")
+                .tag("method", method).tag("uri", uri)
+                .register(meterRegistry)
+                .record(statistics.getRows());
+        Timer.builder("jpashop.sql.time")
+                .tag("method", method).tag("uri", uri)
+                .register(meterRegistry)
+                .record(statistics.getElapsedNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * 한 요청에 한번만 예산을 검사한다.
+     * @return 예산 초과 내용, 초과하지 않았거나 이미 검사한 요청이면 null
+     */
+    public String check(String method, String uri, SqlStatistics statistics) {
+        if (!statistics.markChecked()) {
+            return null;
+        }
+        String violation = check(properties.budgetOf(method + " " + uri), statistics, method, uri);
+        if (violation != null) {
+            log.warn("SQL 예산 초과 [{} {}] {}", method, uri, violation);
+        }
+        return violation;
+    }
+
+    private String check(Budget budget, SqlStatistics statistics, String method, String uri) {
+        String violation = null;
+        if (budget.getStatements() != null && statistics.getBudgetedStatements() > budget.getStatements()) {
+            exceeded(method, uri, "statements");
+            violation = "statements " + statistics.getBudgetedStatements() + " > " + budget.getStatements();
+        }
+        if (budget.getRepeats() != null && statistics.getMaxRepeats() > budget.getRepeats()) {
+            exceeded(method, uri, "repeats");
+            String repeated = "N+1 의심, 같은 SQL " + statistics.getMaxRepeats() + "번 > " + budget.getRepeats()
+                    + " : " + statistics.getMostRepeatedSql();
+            violation = violation == null ? repeated : violation + ", " + repeated;
+        }
+        return violation;
+    }
+
+    private void exceeded(String method, String uri, String kind) {
+        Counter.builder("jpashop.sql.budget.exceeded")
+                .tag("method", method).tag("uri", uri).tag("kind", kind)
+                .register(meterRegistry)
+                .increment();
+    }
+}
@@ -0,0 +1,76 @@
+package jpabook.jpashop.monitor;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 요청당 SQL 예산 (jpashop.sql-budget.*)
+ * <pre>
+ * jpashop:
+ *   sql-budget:
+ *     mode: LOG
+ *     defaults: {statements: 50, repeats: 10}
+ *     endpoints:
+ *       "[GET /api/v4/orders]": {statements: 3}
+ * </pre>
+ */
+@Component
+@ConfigurationProperties(prefix = "jpashop.sql-budget")
+@Getter @Setter
+public class SqlBudgetProperties {
+
+    public enum Mode {
+        /** 초과하면 경고 로그만 남긴다. */
+        LOG,
+        /** 초과하면 요청을 실패시킨다. (테스트, 부하 테스트용) */
+        FAIL
+    }
+
+    private boolean enabled = true;
+    private Mode mode = Mode.LOG;
+
+    /**
+     * 응답 헤더(X-Sql-*) 를 붙일지
+     */
+    private boolean headers = true;
+
+    private Budget defaults = new Budget(50, 10);
+
+    /**
+     * key : "HTTP메서드 URL패턴" (예: GET /api/v4/orders), 비어있는 값은 defaults 를 쓴다.
+     */
+    private Map<String, Budget> endpoints = new LinkedHashMap<>();
+
+    @Getter @Setter
+    public static class Budget {
+
+        /** 요청당 최대 statement 수 */
+        private Integer statements;
+
+        /** 같은 모양의 SQL 을 최대 몇번까지 허용할지 (N+1 감지) */
+        private Integer repeats;
+
+        public Budget() {
+        }
+
+        public Budget(Integer statements, Integer repeats) {
+            this.statements = statements;
+            this.repeats = repeats;
+        }
+    }
+
+    Budget budgetOf(String endpoint) {
+        Budget budget = endpoints.get(endpoint);
+        if (budget == null) {
+            return defaults;
+        }
+        return new Budget(
+                budget.getStatements() != null ? budget.getStatements() : defaults.getStatements(),
+                budget.getRepeats() != null ? budget.getRepeats() : defaults.getRepeats());
+    }
+}
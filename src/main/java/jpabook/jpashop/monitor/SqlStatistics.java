@@ -0,0 +1,129 @@
+package jpabook.jpashop.monitor;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 요청 하나에서 실행된 SQL 통계 (statement 수, DB 시간, 읽은 row 수, 같은 모양 SQL 반복 횟수)
+ * <p>
+ *     요청 쓰레드의 ThreadLocal 에 담아 두고 p6spy 리스너가 채운다.
+ *     다른 쓰레드(비동기, 병렬 조회)에서 실행된 SQL 은 잡히지 않는다.
+ * </p>
+ * <p>
+ *     BatchInLoader 가 IN 절을 나눠서 같은 SQL 을 chunk 수만큼 다시 실행하는 것은 N+1 이 아니므로
+ *     두번째 chunk 부터는 chunkStatements 로만 세고 예산(statement 수, 반복 횟수)에는 넣지 않는다.
+ * </p>
+ */
+@Getter
+public class SqlStatistics {
+
+    private static final ThreadLocal<SqlStatistics> CURRENT = new ThreadLocal<>();
+
+    private int statements;
+
+    /**
+     * statements 중 분할 조회의 두번째 chunk 부터 (예산 검사에서 뺀다)
+     */
+    private int chunkStatements;
+    private long elapsedNanos;
+    private long rows;
+
+    /**
+     * 가장 많이 반복된 SQL 과 그 횟수 (N+1 이면 주문 수만큼 반복된다.)
+     */
+    private String mostRepeatedSql;
+    private int maxRepeats;
+
+    @Getter(AccessLevel.NONE)
+    private final Map<String, int[]> repeats = new HashMap<>();
+    @Getter(AccessLevel.NONE)
+    private boolean checked;
+    @Getter(AccessLevel.NONE)
+    private Set<String> chunkedSqls;
+
+    public static SqlStatistics start() {
+        SqlStatistics statistics = new SqlStatistics();
+        CURRENT.set(statistics);
+        return statistics;
+    }
+
+    /**
+     * @return 측정 중이 아니면 null
+     */
+    public static SqlStatistics current() {
+        return CURRENT.get();
+    }
+
+    public static void clear() {
+        CURRENT.remove();
+    }
+
+    /**
+     * 분할 조회 시작, 측정 중이 아니면 아무것도 하지 않는다. 반드시 finally 에서 endChunkedLoad 를 호출한다.
+     */
+    public static void beginChunkedLoad() {
+        SqlStatistics statistics = CURRENT.get();
+        if (statistics != null) {
+            statistics.chunkedSqls = new HashSet<>();
+        }
+    }
+
+    public static void endChunkedLoad() {
+        SqlStatistics statistics = CURRENT.get();
+        if (statistics != null) {
+            statistics.chunkedSqls = null;
+        }
+    }
+
+    /**
+     * @param sql 파라미터가 ? 로 남아있는 SQL (같은 모양이면 같은 문자열)
+     */
+    void statementExecuted(String sql, long nanos) {
+        statements++;
+        elapsedNanos += nanos;
+        if (sql == null) {
+            return;
+        }
+        if (chunkedSqls != null && !chunkedSqls.add(sql)) {
+            chunkStatements++;
+            return;
+        }
+        int[] count = repeats.computeIfAbsent(sql, k -> new int[1]);
+        if (++count[0] > maxRepeats) {
+            maxRepeats = count[0];
+            mostRepeatedSql = sql;
+        }
+    }
+
+    void rowRead(long nanos) {
+        rows++;
+        elapsedNanos += nanos;
+    }
+
+    /**
+     * 예산과 비교할 statement 수 (분할 조회는 SQL 모양마다 한번만 센다)
+     */
+    public int getBudgetedStatements() {
+        return statements - chunkStatements;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedNanos / 1_000_000;
+    }
+
+    /**
+     * 예산 검사를 이미 했으면 false (응답 헤더와 필터에서 두번 하지 않도록)
+     */
+    boolean markChecked() {
+        if (checked) {
+            return false;
+        }
+        checked = true;
+        return true;
+    }
+}
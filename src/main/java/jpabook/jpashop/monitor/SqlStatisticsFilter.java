@@ -0,0 +1,45 @@
+package jpabook.jpashop.monitor;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * 요청마다 SqlStatistics 측정 범위를 열고 닫는다.
+ * <li>@ResponseBody 응답은 SqlBudgetAdvice 가 바디를 쓰기 전에 헤더를 붙이고 예산을 검사한다.</li>
+ * <li>그 외(화면, 스트리밍 export 등)는 여기서 요청이 끝난 뒤 예산을 검사하고 로그만 남긴다.</li>
+ * <li>지표는 JSON 직렬화 중의 지연 로딩까지 포함하도록 항상 여기서 남긴다.</li>
+ */
+@Component
+@RequiredArgsConstructor
+public class SqlStatisticsFilter extends OncePerRequestFilter {
+
+    private final SqlBudgetMonitor monitor;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !monitor.isEnabled();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        SqlStatistics statistics = SqlStatistics.start();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            SqlStatistics.clear();
+            String uri = SqlBudgetMonitor.uriOf(request);
+            if (uri != null && !request.isAsyncStarted()) { // 비동기 API 의 SQL 은 다른 쓰레드에서 실행되므로 집계하지 않는다.
+                monitor.check(request.getMethod(), uri, statistics);
+                monitor.record(request.getMethod(), uri, statistics);
+            }
+        }
+    }
+}
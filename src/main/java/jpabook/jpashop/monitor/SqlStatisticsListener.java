@@ -0,0 +1,32 @@
+package jpabook.jpashop.monitor;
+
+import com.p6spy.engine.common.ResultSetInformation;
+import com.p6spy.engine.common.StatementInformation;
+import com.p6spy.engine.event.SimpleJdbcEventListener;
+import org.springframework.stereotype.Component;
+
+import java.sql.SQLException;
+
+/**
+ * p6spy 이벤트로 현재 요청의 SqlStatistics 를 채운다.
+ * <li>p6spy-spring-boot-starter 는 JdbcEventListener 빈을 자동으로 등록한다.</li>
+ */
+@Component
+public class SqlStatisticsListener extends SimpleJdbcEventListener {
+
+    @Override
+    public void onAfterAnyExecute(StatementInformation statementInformation, long timeElapsedNanos, SQLException e) {
+        SqlStatistics statistics = SqlStatistics.current();
+        if (statistics != null) {
+            statistics.statementExecuted(statementInformation.getSql(), timeElapsedNanos);
+        }
+    }
+
+    @Override
+    public void onAfterResultSetNext(ResultSetInformation resultSetInformation, long timeElapsedNanos, boolean hasNext, SQLException e) {
+        SqlStatistics statistics = SqlStatistics.current();
+        if (statistics != null && hasNext) {
+            statistics.rowRead(timeElapsedNanos);
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package jpabook.jpashop.repository;
+
+import jpabook.jpashop.monitor.SqlStatistics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * <h2>IN 절 분할 조회기</h2>
+ * <p>
+ *     부모 id 목록으로 자식을 IN 쿼리 한번에 조회할 때 생기는 문제를 해결한다.
+ * </p>
+ * <li>id 가 수천개면 DB 파라미터 개수 제한에 걸린다. -> chunkSize 단위로 나눠서 조회</li>
+ * <li>id 개수가 바뀔때마다 SQL 문자열이 달라져서 statement/실행계획 캐시를 못쓴다.
+ *     -> 마지막 id 를 반복해서 2의 거듭제곱 개수로 맞춘다. (1, 2, 4, 8 ... chunkSize 종류의 SQL 만 생긴다)</li>
+ * <li>parallelism 을 2 이상으로 주면 chunk 들을 각자 별도 읽기전용 트랜잭션(=별도 커넥션)에서 동시에 조회한다.
+ *     커넥션 풀 크기보다 작게 잡아야 한다.
+ *     다른 영속성 컨텍스트에서 조회되므로 DTO 조회에만 쓰고, 엔티티나 락 조회는 loadInCurrentTransaction 을 쓴다.</li>
+ */
+@Component
+public class BatchInLoader {
+
+    private final int chunkSize;
+    private final boolean padding;
+    private final ExecutorService executor;
+    private final TransactionTemplate readOnlyTx;
+
+    public BatchInLoader(@Value("${jpashop.batch-in.chunk-size:1000}") int chunkSize,
+                         @Value("${jpashop.batch-in.padding:true}") boolean padding,
+                         @Value("${jpashop.batch-in.parallelism:1}") int parallelism,
+                         PlatformTransactionManager transactionManager) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("chunkSize 는 1 이상이어야 합니다.");
+        }
+        this.chunkSize = chunkSize;
+        this.padding = padding;
+        this.executor = parallelism > 1 ? Executors.newFixedThreadPool(parallelism, daemonThreadFactory()) : null;
+
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+        this.readOnlyTx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * ids 를 나눠서 query 를 여러번 실행하고 결과를 합쳐서 반환한다.
+     * @param query chunk 로 나뉜 id 목록을 받아서 IN 쿼리를 실행하는 함수
+     */
+    public <T> List<T> load(Collection<Long> ids, Function<List<Long>, List<T>> query) {
+        List<List<Long>> chunks = split(ids);
+        if (chunks.isEmpty()) {
+            return new ArrayList<>();
+        }
+        if (executor == null || chunks.size() == 1) {
+            return loadInCurrentTransaction(ids, query);
+        }
+        return loadParallel(chunks, query);
+    }
+
+    /**
+     * 항상 현재 트랜잭션(영속성 컨텍스트)에서 chunk 순서대로 조회한다.
+     * <p>조회한 엔티티를 수정해야 하거나, SELECT ... FOR UPDATE 처럼 락 순서가 중요할 때 사용한다.</p>
+     * <p>같은 SQL 을 chunk 마다 다시 실행하는 것은 SQL 예산에서 N+1 로 세지 않는다. (SqlStatistics.beginChunkedLoad)</p>
+     */
+    public <T> List<T> loadInCurrentTransaction(Collection<Long> ids, Function<List<Long>, List<T>> query) {
+        List<T> result = new ArrayList<>();
+        SqlStatistics.beginChunkedLoad();
+        try {
+            for (List<Long> chunk : split(ids)) {
+                result.addAll(query.apply(chunk));
+            }
+        } finally {
+            SqlStatistics.endChunkedLoad();
+        }
+        return result;
+    }
+
+    private <T> List<T> loadParallel(List<List<Long>> chunks, Function<List<Long>, List<T>> query) {
+        List<CompletableFuture<List<T>>> futures = new ArrayList<>(chunks.size());
+        for (List<Long> chunk : chunks) {
+            futures.add(CompletableFuture.supplyAsync(() -> readOnlyTx.execute(status -> query.apply(chunk)), executor));
+        }
+        List<T> result = new ArrayList<>();
+        try {
+            for (CompletableFuture<List<T>> future : futures) {
+                result.addAll(future.join());
+            }
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+        return result;
+    }
+
+    /**
+     * ids 가 Set 이면 이미 중복이 없으므로 LinkedHashSet 으로 복사하지 않고 바로 chunk 로 나눈다.
+     */
+    List<List<Long>> split(Collection<Long> ids) {
+        Collection<Long> distinct = ids instanceof Set ? ids : new LinkedHashSet<>(ids);
+        List<List<Long>> chunks = new ArrayList<>();
+        List<Long> chunk = null;
+        for (Long id : distinct) {
+            if (chunk == null || chunk.size() == chunkSize) {
+                chunk = new ArrayList<>(Math.min(chunkSize, distinct.size() - chunks.size() * chunkSize));
+                chunks.add(chunk);
+            }
+            chunk.add(id);
+        }
+        if (padding) {
+            chunks.forEach(this::pad);
+        }
+        return chunks;
+    }
+
+    /**
+     * 마지막 id 를 반복해서 2의 거듭제곱 개수(최대 chunkSize)로 맞춘다. IN 절에 같은 값이 중복되어도 결과는 같다.
+     */
+    private void pad(List<Long> chunk) {
+        int size = chunk.size();
+        int bucket = size <= 1 ? size : Integer.highestOneBit(size - 1) << 1;
+        bucket = Math.min(bucket, chunkSize);
+        Long last = chunk.get(size - 1);
+        for (int i = size; i < bucket; i++) {
+            chunk.add(last);
+        }
+    }
+
+    private static ThreadFactory daemonThreadFactory() {
+        AtomicInteger seq = new AtomicInteger();
+        return r -> {
+            Thread thread = new Thread(r, "batch-in-loader-" + seq.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package jpabook.jpashop.repository;
+
+import jpabook.jpashop.domain.Category;
+import jpabook.jpashop.domain.item.Item;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+
+/**
+ * 카테고리 트리 조회는 모두 클로저 테이블(category_closure)을 한번 조인해서 끝낸다. (트리 깊이와 상관없이 쿼리 1번)
+ */
+@Repository
+@RequiredArgsConstructor
+public class CategoryRepository {
+
+    private final EntityManager em;
+
+    public void save(Category category){
+        em.persist(category);
+    }
+
+    public Category findOne(Long id){
+        return em.find(Category.class, id);
+    }
+
+    /**
+     * 하위 트리 전체 (자기 자신 포함), 위쪽 단계부터
+     */
+    public List<Category> findSubtree(Long categoryId){
+        return em.createQuery(
+                        "select c from CategoryClosure cc" +
+                                " join cc.descendant c" +
+                                " where cc.ancestor.id = :categoryId" +
+                                " order by cc.depth, c.id", Category.class)
+                .setParameter("categoryId", categoryId)
+                .getResultList();
+    }
+
+    /**
+     * 최상위부터 바로 위 부모까지 (자기 자신 제외)
+     */
+    public List<Category> findAncestors(Long categoryId){
+        return em.createQuery(
+                        "select c from CategoryClosure cc" +
+                                " join cc.ancestor c" +
+                                " where cc.descendant.id = :categoryId" +
+                                " and cc.depth > 0" +
+                                " order by cc.depth desc", Category.class)
+                .setParameter("categoryId", categoryId)
+                .getResultList();
+    }
+
+    /**
+     * 하위 트리 어디에든 속한 상품을 키셋(seek) 방식으로 페이징
+     * <p>상품이 하위 트리의 여러 카테고리에 있어도 한번만 나온다.</p>
+     * @param lastItemId 이전 페이지의 마지막 상품 id, 첫 페이지는 null
+     */
+    public List<Item> findItemsInSubtree(Long categoryId, Long lastItemId, int limit){
+        return em.createQuery(
+                        "select distinct i from CategoryClosure cc" +
+                                " join cc.descendant c" +
+                                " join c.items i" +
+                                " where cc.ancestor.id = :categoryId" +
+                                " and i.id > :lastItemId" +
+                                " order by i.id", Item.class)
+                .setParameter("categoryId", categoryId)
+                .setParameter("lastItemId", lastItemId == null ? 0L : lastItemId)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+}
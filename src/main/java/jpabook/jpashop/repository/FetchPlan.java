@@ -0,0 +1,69 @@
+package jpabook.jpashop.repository;
+
+import javax.persistence.EntityGraph;
+import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * <h2>주문 조회 fetch plan</h2>
+ * <p>
+ *     조회 메서드마다 join fetch JPQL 을 따로 만들지 않고, Order 에 선언한 @NamedEntityGraph 중 하나를 골라서 넘긴다.
+ *     그래프에 없는 연관관계를 건드리면 지연 로딩이 일어나고, 요청 중이면 LazyLoadGuard 가 잡아낸다.
+ * </p>
+ * <li>SUMMARY : member, delivery (xToOne 만, 페이징 가능)</li>
+ * <li>WITH_ITEMS : orderItems + item</li>
+ * <li>FULL : member, delivery, orderItems + item</li>
+ * <li>컬렉션이 들어간 plan 은 row 가 주문상품 수만큼 늘어나므로 그대로는 DB 페이징을 할 수 없다.
+ *     -> OrderRepository.findPage / findPageAfter (id 페이징 후 2단계 조회)</li>
+ */
+public enum FetchPlan {
+
+    NONE(null, false),
+    SUMMARY("Order.summary", false),
+    WITH_ITEMS("Order.withItems", true),
+    FULL("Order.full", true);
+
+    /**
+     * JPA 표준 fetch graph 힌트 : 그래프에 있는 속성은 즉시, 나머지는 매핑대로(LAZY) 로딩한다.
+     */
+    private static final String FETCH_GRAPH = "javax.persistence.fetchgraph";
+
+    private final String graphName;
+    private final boolean fetchesCollection;
+
+    FetchPlan(String graphName, boolean fetchesCollection) {
+        this.graphName = graphName;
+        this.fetchesCollection = fetchesCollection;
+    }
+
+    public boolean fetchesCollection() {
+        return fetchesCollection;
+    }
+
+    <T> TypedQuery<T> apply(EntityManager em, TypedQuery<T> query) {
+        if (graphName == null) {
+            return query;
+        }
+        return query.setHint(FETCH_GRAPH, em.getEntityGraph(graphName));
+    }
+
+    Map<String, Object> hints(EntityManager em) {
+        if (graphName == null) {
+            return Collections.emptyMap();
+        }
+        EntityGraph<?> graph = em.getEntityGraph(graphName);
+        return Collections.singletonMap(FETCH_GRAPH, graph);
+    }
+
+    /**
+     * setMaxResults 와 같이 쓰려면 컬렉션이 없는 plan 이어야 한다.
+     * <p>컬렉션 plan 에 페이징을 걸면 Hibernate 가 전체를 읽은 뒤 메모리에서 자른다. (HHH000104)</p>
+     */
+    void checkPageable() {
+        if (fetchesCollection) {
+            throw new IllegalArgumentException(name() + " 는 컬렉션을 함께 조회하므로 페이징할 수 없습니다. findPage/findPageAfter 를 쓰세요.");
+        }
+    }
+}
@@ -1,17 +1,26 @@
 package jpabook.jpashop.repository;
 
+import javax.persistence.Cache;
 import javax.persistence.EntityManager;
+import javax.persistence.LockModeType;
 import jpabook.jpashop.domain.item.Item;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.annotations.QueryHints;
+import org.hibernate.query.NativeQuery;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.TreeSet;
 
 @Repository
 @RequiredArgsConstructor
 public class ItemRepository {
 
     private final EntityManager em;
+    private final BatchInLoader batchInLoader;
 
     public void save(Item item){
         if(item.getId() == null){ //아이템은 jpa에 등록하기 전엔 id가 없기 때문에 체크해야한다.
@@ -25,7 +34,94 @@ public class ItemRepository {
         return em.find(Item.class, id);
     }
 
+    /**
+     * 상품 목록은 화면마다 다시 읽으므로 쿼리 캐시에 둔다. (id 목록만 캐시되고 상품은 2차 캐시에서 꺼낸다)
+     */
     public List<Item> findAll(){
-        return  em.createQuery("select i from Item i",Item.class).getResultList();
+        return  em.createQuery("select i from Item i",Item.class)
+                .setHint(QueryHints.CACHEABLE, true)
+                .setHint(QueryHints.READ_ONLY, true) // 목록용 : 스냅샷을 남기지 않는다. 수정은 findOne 으로 조회해서
+                .getResultList();
+    }
+
+    /**
+     * 비관적 락(SELECT ... FOR UPDATE)으로 조회, 트랜잭션이 끝날때까지 다른 트랜잭션은 이 row 를 수정할 수 없다.
+     */
+    public Item findOneForUpdate(Long id){
+        return em.find(Item.class, id, LockModeType.PESSIMISTIC_WRITE);
+    }
+
+    /**
+     * id 목록으로 한번에 비관적 락을 걸어서 조회
+     * <p>항상 id 순서로 잠그기 때문에 여러 상품을 동시에 주문하는 트랜잭션끼리 데드락이 나지 않는다.</p>
+     */
+    public List<Item> findAllByIdForUpdate(Collection<Long> ids){
+        return batchInLoader.loadInCurrentTransaction(new TreeSet<>(ids), chunk ->
+                em.createQuery("select i from Item i where i.id in :ids order by i.id", Item.class)
+                        .setParameter("ids", chunk)
+                        .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                        .getResultList());
+    }
+
+    /**
+     * 재고가 충분할 때만 한번의 UPDATE 로 재고를 차감한다.
+     * <p>영속성 컨텍스트를 거치지 않기 때문에 이미 조회한 엔티티가 있다면 refresh 해야 한다.</p>
+     * @return 차감된 row 수 (0 이면 재고 부족)
+     */
+    public int decreaseStock(Long id, int quantity){
+        int updated = updateStock(
+                "update item set stock_quantity = stock_quantity - :quantity, version = version + 1" +
+                        " where item_id = :id and stock_quantity >= :quantity")
+                .setParameter("quantity", quantity)
+                .setParameter("id", id)
+                .executeUpdate();
+        evict(id);
+        return updated;
+    }
+
+    /**
+     * 재고 검사 없이 변경량만큼 재고를 반영한다. (플래시 세일 장부를 모아서 반영할때 사용)
+     * @param delta 양수면 차감, 음수면 증가
+     */
+    public int applyStockDelta(Long id, int delta){
+        int updated = updateStock(
+                "update item set stock_quantity = stock_quantity - :delta, version = version + 1" +
+                        " where item_id = :id")
+                .setParameter("delta", delta)
+                .setParameter("id", id)
+                .executeUpdate();
+        evict(id);
+        return updated;
+    }
+
+    /**
+     * JPQL 벌크 UPDATE 나 Item 으로 동기화한 native 쿼리는 Item 2차 캐시 region 전체와 item 테이블을 쓰는 쿼리 캐시를 모두 비운다.
+     * 재고는 상품 한개만 바뀌고 상품 목록(id)은 그대로이므로 native 쿼리로 동기화 대상(query space)을 비우고 해당 상품만 직접 evict 한다.
+     * <p>캐시하는 쿼리는 findAll (id 목록) 뿐이고 재고가 바뀌어도 id 목록은 같다. 재고 조건으로 조회하는 쿼리를 캐시하게 되면 여기도 같이 고쳐야 한다.</p>
+     */
+    private NativeQuery<?> updateStock(String sql){
+        return em.createNativeQuery(sql)
+                .unwrap(NativeQuery.class)
+                .addSynchronizedQuerySpace("");
+    }
+
+    /**
+     * 지금 evict 하고, 커밋 전에 다른 트랜잭션이 옛 값을 다시 캐시에 올릴 수 있으므로 트랜잭션이 끝난 뒤에 한번 더 evict 한다.
+     */
+    private void evict(Long id){
+        Cache cache = em.getEntityManagerFactory().getCache();
+        cache.evict(Item.class, id);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    cache.evict(Item.class, id);
+                }
+            });
+        }
+    }
+
+    public void refresh(Item item){
+        em.refresh(item);
     }
 }
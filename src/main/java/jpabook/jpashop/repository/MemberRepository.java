@@ -4,8 +4,10 @@ import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
 import jpabook.jpashop.domain.Member;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.annotations.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository //스프링 빈에 등록
@@ -15,6 +17,7 @@ public class MemberRepository {
     //@PersistenceContext //spring이 엔티티매니저를 만들어 주입(injection)해준다.
     //위 어노테이션도 사용가능하지만 현재 스프링부트에서는 아래방식을 지원한다.
     private final EntityManager em;
+    private final BatchInLoader batchInLoader;
 
     public void save(Member member){
         em.persist(member);
@@ -25,7 +28,19 @@ public class MemberRepository {
     }
 
     public List<Member> findAll(){
-        return em.createQuery("select m from Member m", Member.class).getResultList();
+        return em.createQuery("select m from Member m", Member.class)
+                .setHint(QueryHints.READ_ONLY, true) // 목록용 : 스냅샷을 남기지 않는다. 수정은 findOne 으로 조회해서
+                .getResultList();
+    }
+
+    /**
+     * id 목록으로 한번에 조회 (IN 쿼리)
+     */
+    public List<Member> findAllById(Collection<Long> ids){
+        return batchInLoader.loadInCurrentTransaction(ids, chunk ->
+                em.createQuery("select m from Member m where m.id in :ids", Member.class)
+                        .setParameter("ids", chunk)
+                        .getResultList());
     }
 
     public List<Member> findByName(String name){
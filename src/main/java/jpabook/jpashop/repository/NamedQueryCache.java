@@ -0,0 +1,35 @@
+package jpabook.jpashop.repository;
+
+import javax.persistence.EntityManager;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.IntFunction;
+
+/**
+ * 검색 조건 조합(bitmask)마다 만든 JPQL 을 named query 로 등록해 두고 재사용한다.
+ * <p>
+ *     동적 쿼리를 매번 문자열로 조립하면 요청마다 JPQL 을 만들고 Hibernate 쿼리 플랜 캐시를 문자열로 찾는다.
+ *     조합 수는 2^조건수 로 정해져 있으므로 처음 한번만 조립/파싱하고 이후에는 이름으로 꺼낸다.
+ * </p>
+ */
+public class NamedQueryCache {
+
+    private final String prefix;
+    private final Map<Integer, String> names = new ConcurrentHashMap<>();
+
+    public NamedQueryCache(String prefix) {
+        this.prefix = prefix;
+    }
+
+    /**
+     * @param jpql 조건 조합으로 JPQL 을 만드는 함수 (조합마다 처음 한번만 호출된다)
+     * @return named query 이름
+     */
+    public String name(EntityManager em, int filters, IntFunction<String> jpql) {
+        return names.computeIfAbsent(filters, f -> {
+            String name = prefix + "." + Integer.toBinaryString(f);
+            em.getEntityManagerFactory().addNamedQuery(name, em.createQuery(jpql.apply(f)));
+            return name;
+        });
+    }
+}
@@ -7,18 +7,29 @@ import javax.persistence.criteria.*;
 
 import jpabook.jpashop.domain.Order;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.annotations.QueryHints;
 import org.springframework.stereotype.Repository;
 import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.RequestParam;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
+/**
+ * 목록 조회(search, findAll*)는 QueryHints.READ_ONLY 로 조회한다.
+ * <li>읽기 전용 엔티티는 영속성 컨텍스트가 dirty checking 용 스냅샷(로딩 시점 값 복사본)을 들고 있지 않고 flush 대상에서도 빠진다.</li>
+ * <li>목록으로 조회한 엔티티를 수정해도 반영되지 않는다.
+ *     같은 영속성 컨텍스트에서는 findOne(em.find) 도 이미 올라와 있는 읽기 전용 인스턴스를 그대로 돌려주므로 소용없다.
+ *     수정은 목록을 조회하지 않은 별도 트랜잭션(영속성 컨텍스트)에서 주문을 조회해서 한다. (예: OrderService.cancelOrder)</li>
+ */
 @Repository
 @RequiredArgsConstructor
 public class OrderRepository {
 
     private final EntityManager em;
+    private final NamedQueryCache searchQueries = new NamedQueryCache("Order.search");
 
     public void save(Order order) {
         em.persist(order);
@@ -28,57 +39,104 @@ public class OrderRepository {
         return em.find(Order.class, id);
     }
 
-    //첫번째 검색방법(코드가 복잡하고 버그가 많다)
-    public List<Order> findAllByString(OrderSearch orderSearch) {
+    /**
+     * fetch plan 의 연관관계까지 한번에 조회 (수정할 주문을 조회할 때, 영속 상태)
+     */
+    public Order findOne(Long id, FetchPlan plan) {
+        return em.find(Order.class, id, plan.hints(em));
+    }
 
-        String jpql = "select o from Order o join o.member m";
-        boolean isFirstCondition = true;
+    /**
+     * 전체 주문을 fetch plan 대로 조회 (컬렉션 plan 이면 주문 중복은 메모리에서만 제거한다)
+     */
+    public List<Order> findAll(FetchPlan plan) {
+        return plan.apply(em, em.createQuery("SELECT distinct o FROM Order o ORDER BY o.id", Order.class))
+                .setHint(QueryHints.PASS_DISTINCT_THROUGH, false)
+                .setHint(QueryHints.READ_ONLY, true)
+                .getResultList();
+    }
 
+    /**
+     * 키셋 페이징 + fetch plan (컬렉션이 없는 plan 만)
+     */
+    public List<Order> findAllAfter(Long lastOrderId, int limit, FetchPlan plan) {
+        plan.checkPageable();
+        return plan.apply(em, em.createQuery(
+                        "SELECT o FROM Order o" +
+                                " WHERE o.id > :lastOrderId" +
+                                " ORDER BY o.id", Order.class))
+                .setHint(QueryHints.READ_ONLY, true)
+                .setParameter("lastOrderId", lastOrderId == null ? 0L : lastOrderId)
+                .setMaxResults(limit)
+                .getResultList();
+    }
 
-        //주문 상태 검색(김영한쌤 실무에서 이방법 안씀)
-        if (orderSearch.getOrderStatus() != null) {
-            if (isFirstCondition) {
-                jpql += " where";
-                isFirstCondition = false;
-            } else {
-                jpql += " and";
-            }
-            jpql += " o.status = :status";
-        }
+    //첫번째 검색방법(코드가 복잡하고 버그가 많다) -> search() 로 바꿨다.
+    public List<Order> findAllByString(OrderSearch orderSearch) {
+        return search(orderSearch, 1000);
+    }
 
-        //회원 이름 검색
-        if (StringUtils.hasText(orderSearch.getMemberName())) {
-            if (isFirstCondition) {
-                jpql += " where";
-                isFirstCondition = false;
-            } else {
-                jpql += " and";
-            }
-            jpql += " m.name like :name";
-        }
+    /**
+     * 주문 검색
+     * <li>조건 조합마다 JPQL 을 한번만 만들어서 named query 로 재사용한다. (NamedQueryCache)</li>
+     * <li>회원 이름은 앞부분 일치(like '이름%') 라서 member.name 인덱스를 탄다.</li>
+     * <li>주문일자 범위/주문상태는 orders (status, order_date), (order_date) 인덱스를 탄다. 최근 주문부터 limit 건</li>
+     * <p>연관 엔티티는 페치 조인하지 않는다. (V1, V2 에서 지연 로딩을 보여주기 위해 그대로 둔다)</p>
+     */
+    public List<Order> search(OrderSearch orderSearch, int limit) {
+        return search(orderSearch, limit, FetchPlan.NONE);
+    }
 
-        TypedQuery<Order> query = em.createQuery(jpql, Order.class)
-                .setMaxResults(1000);
+    /**
+     * 주문 검색 + fetch plan (limit 이 있으므로 컬렉션이 없는 plan 만)
+     */
+    public List<Order> search(OrderSearch orderSearch, int limit, FetchPlan plan) {
+        plan.checkPageable();
+        int filters = orderSearch.filters();
+        TypedQuery<Order> query = plan.apply(em, em.createNamedQuery(searchQueries.name(em, filters, OrderRepository::searchJpql), Order.class))
+                .setHint(QueryHints.READ_ONLY, true)
+                .setMaxResults(limit);
 
-        if (orderSearch.getOrderStatus() != null) {
-            query = query.setParameter("status", orderSearch.getOrderStatus());
+        if ((filters & OrderSearch.STATUS) != 0) {
+            query.setParameter("status", orderSearch.getOrderStatus());
         }
-        if (StringUtils.hasText(orderSearch.getMemberName())) {
-            query = query.setParameter("name", orderSearch.getMemberName());
+        if ((filters & OrderSearch.MEMBER_NAME) != 0) {
+            query.setParameter("name", orderSearch.memberNamePrefix());
+        }
+        if ((filters & OrderSearch.ORDER_DATE_FROM) != 0) {
+            query.setParameter("from", orderSearch.getOrderDateFrom().atStartOfDay());
+        }
+        if ((filters & OrderSearch.ORDER_DATE_TO) != 0) {
+            query.setParameter("to", orderSearch.getOrderDateTo().plusDays(1).atStartOfDay());
+        }
+        if ((filters & OrderSearch.DELIVERY_STATUS) != 0) {
+            query.setParameter("deliveryStatus", orderSearch.getDeliveryStatus());
         }
-
         return query.getResultList();
+    }
 
-        /** 정적쿼리일때
-         return em.createQuery("select o from Order o join o.member m " +
-         "where o.status = :status " +
-         "and m.name like :name"
-         ,Order.class)
-         .setParameter("status",orderSearch.getOrderStatus())
-         .setParameter("name",orderSearch.getMemberName())
-         .setMaxResults(1000) //최대 1000건
-         .getResultList();
-         */
+    private static String searchJpql(int filters) {
+        StringBuilder jpql = new StringBuilder("select o from Order o join o.member m");
+        if ((filters & OrderSearch.DELIVERY_STATUS) != 0) {
+            jpql.append(" join o.delivery d");
+        }
+        jpql.append(" where 1 = 1");
+        if ((filters & OrderSearch.STATUS) != 0) {
+            jpql.append(" and o.status = :status");
+        }
+        if ((filters & OrderSearch.MEMBER_NAME) != 0) {
+            jpql.append(" and m.name like :name escape '\\'");
+        }
+        if ((filters & OrderSearch.ORDER_DATE_FROM) != 0) {
+            jpql.append(" and o.orderDate >= :from");
+        }
+        if ((filters & OrderSearch.ORDER_DATE_TO) != 0) {
+            jpql.append(" and o.orderDate < :to");
+        }
+        if ((filters & OrderSearch.DELIVERY_STATUS) != 0) {
+            jpql.append(" and d.status = :deliveryStatus");
+        }
+        return jpql.append(" order by o.orderDate desc, o.id desc").toString();
     }
 
     /**
@@ -100,12 +158,14 @@ public class OrderRepository {
         }
         //회원 이름 검색
         if (StringUtils.hasText(orderSearch.getMemberName())) {
-            Predicate name = cb.like(m.<String>get("name"), "%" + orderSearch.getMemberName() + "%");
+            Predicate name = cb.like(m.<String>get("name"), orderSearch.memberNamePrefix(), '\\'); // 앞부분 일치만 인덱스를 탄다.
             criteria.add(name);
         }
 
         cq.where(cb.and(criteria.toArray(new Predicate[criteria.size()])));
-        TypedQuery<Order> query = em.createQuery(cq).setMaxResults(1000);
+        TypedQuery<Order> query = em.createQuery(cq)
+                .setHint(QueryHints.READ_ONLY, true)
+                .setMaxResults(1000);
 
         return query.getResultList();
 
@@ -117,7 +177,8 @@ public class OrderRepository {
                 "SELECT o FROM Order o" +
                         " JOIN FETCH o.member m" +
                         " JOIN FETCH o.delivery d", Order.class
-        ).getResultList();
+        ).setHint(QueryHints.READ_ONLY, true)
+                .getResultList();
     }
 
 
@@ -128,6 +189,7 @@ public class OrderRepository {
                                 " join fetch o.delivery d" +
                                 " join fetch o.orderItems oi" +
                                 " join fetch oi.item i", Order.class)
+                .setHint(QueryHints.READ_ONLY, true)
                 .getResultList();
     }
 
@@ -137,7 +199,85 @@ public class OrderRepository {
                 "SELECT o FROM Order o" +
                             " JOIN FETCH o.member m" +
                             " JOIN FETCH o.delivery d", Order.class
-                ).setFirstResult(offset)
+                ).setHint(QueryHints.READ_ONLY, true)
+                .setFirstResult(offset)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    /**
+     * <h2>컬렉션까지 조회하면서 DB 페이징 (2단계)</h2>
+     * <li>1단계 : 주문 id 만 offset/limit 으로 페이징한다. (PK 인덱스만 읽는다)</li>
+     * <li>2단계 : 그 id 들만 fetch plan(entity graph) 으로 member, delivery, orderItems, item 까지 쿼리 한번에 조회한다.</li>
+     * <li>컬렉션 페치 조인에 setMaxResults 를 거는 것과 달리 메모리 페이징(HHH000104)이 없고, 쿼리는 항상 2번이다.</li>
+     */
+    public List<Order> findPage(int offset, int limit, FetchPlan plan) {
+        List<Long> ids = em.createQuery("SELECT o.id FROM Order o ORDER BY o.id", Long.class)
+                .setFirstResult(offset)
+                .setMaxResults(limit)
+                .getResultList();
+        return findAllByIdInOrder(ids, plan);
+    }
+
+    /**
+     * 2단계 조회의 키셋(seek) 페이징 버전 : 1단계를 lastOrderId 이후부터 읽는다.
+     */
+    public List<Order> findPageAfter(Long lastOrderId, int limit, FetchPlan plan) {
+        List<Long> ids = em.createQuery(
+                        "SELECT o.id FROM Order o" +
+                                " WHERE o.id > :lastOrderId" +
+                                " ORDER BY o.id", Long.class)
+                .setParameter("lastOrderId", lastOrderId == null ? 0L : lastOrderId)
+                .setMaxResults(limit)
+                .getResultList();
+        return findAllByIdInOrder(ids, plan);
+    }
+
+    /**
+     * IN 절은 결과 순서를 보장하지 않으므로 ids 순서(1단계 페이지 순서)대로 다시 맞춘다.
+     */
+    private List<Order> findAllByIdInOrder(List<Long> ids, FetchPlan plan) {
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<Order> orders = plan.apply(em, em.createQuery(
+                        "SELECT distinct o FROM Order o WHERE o.id in :ids", Order.class))
+                .setHint(QueryHints.PASS_DISTINCT_THROUGH, false)
+                .setHint(QueryHints.READ_ONLY, true)
+                .setParameter("ids", ids)
+                .getResultList();
+
+        Map<Long, Order> byId = new HashMap<>(orders.size() * 2);
+        for (Order order : orders) {
+            byId.put(order.getId(), order);
+        }
+        List<Order> result = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Order order = byId.get(id);
+            if (order != null) { // 1단계와 2단계 사이에 삭제된 주문
+                result.add(order);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 키셋(seek) 페이징
+     * <p>
+     *     offset 은 앞의 row 를 전부 읽고 버리기 때문에 페이지가 깊어질수록 느려진다.
+     *     마지막으로 조회한 주문 id 이후부터 PK 인덱스를 타고 limit 건만 읽으므로 페이지 깊이와 상관없이 응답시간이 일정하다.
+     * </p>
+     * @param lastOrderId 이전 페이지의 마지막 주문 id (첫 페이지는 null)
+     */
+    public List<Order> findAllWithMemberDeliveryAfter(Long lastOrderId, int limit) {
+        return em.createQuery(
+                "SELECT o FROM Order o" +
+                            " JOIN FETCH o.member m" +
+                            " JOIN FETCH o.delivery d" +
+                            " WHERE o.id > :lastOrderId" +
+                            " ORDER BY o.id", Order.class
+                ).setHint(QueryHints.READ_ONLY, true)
+                .setParameter("lastOrderId", lastOrderId == null ? 0L : lastOrderId)
                 .setMaxResults(limit)
                 .getResultList();
     }
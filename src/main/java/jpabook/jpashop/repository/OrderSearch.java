@@ -1,12 +1,52 @@
 package jpabook.jpashop.repository;
 
+import jpabook.jpashop.domain.DeliveryStatus;
 import jpabook.jpashop.domain.OrderStatus;
 import lombok.Getter;
 import lombok.Setter;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.util.StringUtils;
+
+import java.time.LocalDate;
 
 @Getter @Setter
 public class OrderSearch {
 
-    private String memberName; //회원이름
+    private String memberName; //회원이름 (앞부분 일치)
     private OrderStatus orderStatus; // 주문상태[ORDER,CANCEL]
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate orderDateFrom; //주문일자 시작 (포함)
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate orderDateTo; //주문일자 끝 (포함)
+
+    private DeliveryStatus deliveryStatus; //배송상태[READY,COMP]
+
+    //==검색 조건==//
+    public static final int STATUS = 1;
+    public static final int MEMBER_NAME = 1 << 1;
+    public static final int ORDER_DATE_FROM = 1 << 2;
+    public static final int ORDER_DATE_TO = 1 << 3;
+    public static final int DELIVERY_STATUS = 1 << 4;
+
+    /**
+     * 들어온 검색 조건 조합 (조합마다 JPQL 이 하나씩 정해진다)
+     */
+    public int filters() {
+        int filters = 0;
+        if (orderStatus != null) filters |= STATUS;
+        if (StringUtils.hasText(memberName)) filters |= MEMBER_NAME;
+        if (orderDateFrom != null) filters |= ORDER_DATE_FROM;
+        if (orderDateTo != null) filters |= ORDER_DATE_TO;
+        if (deliveryStatus != null) filters |= DELIVERY_STATUS;
+        return filters;
+    }
+
+    /**
+     * like 패턴 : 앞부분 일치만 허용해야 name 인덱스를 탄다. ('%이름%' 은 인덱스를 쓸 수 없다)
+     * 이름에 들어있는 % _ 는 문자 그대로 찾도록 escape('\') 한다.
+     */
+    public String memberNamePrefix() {
+        return memberName.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+    }
 }
@@ -0,0 +1,34 @@
+package jpabook.jpashop.repository;
+
+import jpabook.jpashop.domain.StockLedger;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+
+@Repository
+@RequiredArgsConstructor
+public class StockLedgerRepository {
+
+    private final EntityManager em;
+
+    public void save(StockLedger ledger){
+        em.persist(ledger);
+    }
+
+    /**
+     * 아직 상품 재고에 반영되지 않은 장부를 오래된 순서로 조회
+     */
+    public List<StockLedger> findPending(int limit){
+        return em.createQuery("select l from StockLedger l order by l.id", StockLedger.class)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    public int deleteAll(List<Long> ids){
+        return em.createQuery("delete from StockLedger l where l.id in :ids")
+                .setParameter("ids", ids)
+                .executeUpdate();
+    }
+}
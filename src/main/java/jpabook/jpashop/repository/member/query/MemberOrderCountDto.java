@@ -0,0 +1,29 @@
+package jpabook.jpashop.repository.member.query;
+
+import jpabook.jpashop.domain.Address;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 회원 목록 한 줄 : 회원 정보 + 주문 수 + 마지막 주문일 (주문이 없으면 orderCount=0, lastOrderDate=null)
+ */
+@Data
+public class MemberOrderCountDto {
+
+    private Long memberId;
+    private String name;
+    private Address address;
+    private long orderCount;
+    private LocalDateTime lastOrderDate;
+
+    // JPQL 에서 임베디드 타입은 GROUP BY 하기 어려워서 컬럼으로 받아서 조립한다.
+    public MemberOrderCountDto(Long memberId, String name, String city, String street, String zipcode,
+                               long orderCount, LocalDateTime lastOrderDate) {
+        this.memberId = memberId;
+        this.name = name;
+        this.address = new Address(city, street, zipcode);
+        this.orderCount = orderCount;
+        this.lastOrderDate = lastOrderDate;
+    }
+}
@@ -0,0 +1,40 @@
+package jpabook.jpashop.repository.member.query;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+
+/**
+ * 화면/API 용 회원 조회 (DTO 직접 조회)
+ * <p>
+ *     Member, Order 엔티티를 만들지 않고 쿼리 1번으로 회원별 주문 수와 마지막 주문일까지 가져온다.
+ *     생성자 표현식(NEW)으로 조회하므로 영속성 컨텍스트에 아무것도 쌓이지 않는다.
+ * </p>
+ */
+@Repository
+@RequiredArgsConstructor
+public class MemberQueryRepository {
+
+    private final EntityManager em;
+
+    /**
+     * 키셋(seek) 페이징 : lastMemberId 이후의 회원을 limit 명 조회
+     * <li>주문이 없는 회원도 나와야 하므로 LEFT JOIN, 집계는 orders(member_id, order_date) 인덱스로 끝난다.</li>
+     * <li>GROUP BY 가 회원 PK 기준이라 회원 한명이 한 줄이고, setMaxResults 가 DB 페이징으로 그대로 나간다.</li>
+     */
+    public List<MemberOrderCountDto> findMemberOrderCounts(Long lastMemberId, int limit) {
+        return em.createQuery(
+                        "SELECT NEW jpabook.jpashop.repository.member.query.MemberOrderCountDto(" +
+                                "m.id, m.name, m.address.city, m.address.street, m.address.zipcode, COUNT(o.id), MAX(o.orderDate))" +
+                                " FROM Member m" +
+                                " LEFT JOIN m.orders o" +
+                                " WHERE m.id > :lastMemberId" +
+                                " GROUP BY m.id, m.name, m.address.city, m.address.street, m.address.zipcode" +
+                                " ORDER BY m.id", MemberOrderCountDto.class)
+                .setParameter("lastMemberId", lastMemberId == null ? 0L : lastMemberId)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+}
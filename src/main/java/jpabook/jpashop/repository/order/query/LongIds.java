@@ -0,0 +1,102 @@
+package jpabook.jpashop.repository.order.query;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.ToLongFunction;
+
+/**
+ * id 목록 (long[] 기반)
+ * <p>
+ *     조회 결과에서 id 만 뽑아 List&lt;Long&gt; 으로 만들면 id 마다 Long 객체가 생긴다.
+ *     long[] 에 모아서 정렬/중복 제거까지 primitive 로 처리하고, IN 쿼리 파라미터가 필요한 시점에만 박싱한다.
+ * </p>
+ */
+final class LongIds {
+
+    private long[] values;
+    private int size;
+
+    LongIds(int capacity) {
+        values = new long[Math.max(capacity, 4)];
+    }
+
+    static <T> LongIds of(List<T> rows, ToLongFunction<T> idGetter) {
+        LongIds ids = new LongIds(rows.size());
+        for (T row : rows) {
+            ids.add(idGetter.applyAsLong(row));
+        }
+        return ids;
+    }
+
+    void add(long value) {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size * 2);
+        }
+        values[size++] = value;
+    }
+
+    int size() {
+        return size;
+    }
+
+    long get(int index) {
+        if (index >= size) {
+            throw new IndexOutOfBoundsException("index=" + index + ", size=" + size);
+        }
+        return values[index];
+    }
+
+    /**
+     * 정렬하고 중복을 제거한 뒤(제자리) Set 으로 보여준다.
+     * <li>새 컬렉션을 만들지 않는 view 라서 순회할 때 꺼내는 id 만 박싱된다.</li>
+     * <li>BatchInLoader 는 Set 을 받으면 중복 제거용 LinkedHashSet 을 만들지 않는다.</li>
+     */
+    Set<Long> distinct() {
+        Arrays.sort(values, 0, size);
+        int unique = 0;
+        for (int i = 0; i < size; i++) {
+            if (unique == 0 || values[i] != values[unique - 1]) {
+                values[unique++] = values[i];
+            }
+        }
+        size = unique;
+        return new DistinctView();
+    }
+
+    private final class DistinctView extends AbstractSet<Long> {
+
+        @Override
+        public boolean contains(Object o) {
+            return o instanceof Long && Arrays.binarySearch(values, 0, size, (Long) o) >= 0;
+        }
+
+        @Override
+        public Iterator<Long> iterator() {
+            return new Iterator<Long>() {
+                private int next;
+
+                @Override
+                public boolean hasNext() {
+                    return next < size;
+                }
+
+                @Override
+                public Long next() {
+                    if (next >= size) {
+                        throw new NoSuchElementException();
+                    }
+                    return values[next++];
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package jpabook.jpashop.repository.order.query;
+
+/**
+ * long 키 -> 값 맵 (open addressing, 선형 탐사)
+ * <p>
+ *     id 로 조회 결과를 합칠 때 HashMap&lt;Long, V&gt; 처럼 키를 박싱하거나 Entry 객체를 만들지 않는다.
+ * </p>
+ * <li>키 0 은 빈 칸 표시로 쓰므로 넣을 수 없다. (시퀀스 id 는 1부터 시작한다)</li>
+ * <li>삭제는 지원하지 않는다. 조회 한번 동안 채우고 읽고 버리는 용도</li>
+ */
+final class LongKeyMap<V> {
+
+    private long[] keys;
+    private Object[] values;
+    private int size;
+
+    LongKeyMap(int expectedSize) {
+        int capacity = 4;
+        while (capacity < expectedSize * 2) {
+            capacity <<= 1;
+        }
+        keys = new long[capacity];
+        values = new Object[capacity];
+    }
+
+    void put(long key, V value) {
+        if (key == 0) {
+            throw new IllegalArgumentException("키 0 은 사용할 수 없습니다.");
+        }
+        if ((size + 1) * 2 > keys.length) {
+            resize();
+        }
+        int slot = slot(keys, key);
+        if (keys[slot] == 0) {
+            keys[slot] = key;
+            size++;
+        }
+        values[slot] = value;
+    }
+
+    @SuppressWarnings("unchecked")
+    V get(long key) {
+        if (key == 0) {
+            return null;
+        }
+        int slot = slot(keys, key);
+        return keys[slot] == 0 ? null : (V) values[slot];
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * key 가 있는 칸, 없으면 key 가 들어갈 빈 칸
+     */
+    private static int slot(long[] keys, long key) {
+        int mask = keys.length - 1;
+        int slot = mix(key) & mask;
+        while (keys[slot] != 0 && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private static int mix(long key) {
+        int h = Long.hashCode(key) * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private void resize() {
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+        keys = new long[oldKeys.length * 2];
+        values = new Object[oldKeys.length * 2];
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != 0) {
+                int slot = slot(keys, oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+}
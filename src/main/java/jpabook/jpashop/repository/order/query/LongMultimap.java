@@ -0,0 +1,105 @@
+package jpabook.jpashop.repository.order.query;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.function.ToLongFunction;
+
+/**
+ * long 키 -> 값 목록 (읽기 전용)
+ * <p>
+ *     Collectors.groupingBy 는 키마다 Long 박싱 + HashMap Entry + ArrayList(내부 배열 증가 포함)를 만든다.
+ *     여기서는 값들을 키 순서로 한 배열(values)에 모으고, 키별 시작 위치(offsets)만 기록한다.
+ * </p>
+ * <li>keys : 정렬된 키, offsets[i] ~ offsets[i + 1] : keys[i] 의 값이 있는 values 구간</li>
+ * <li>같은 키 안에서는 rows 의 순서를 유지한다. (counting sort)</li>
+ * <li>get 이 돌려주는 목록은 values 의 구간 view 라 수정할 수 없다.</li>
+ */
+final class LongMultimap<V> {
+
+    private final long[] keys;
+    private final int[] offsets;
+    private final Object[] values;
+
+    private LongMultimap(long[] keys, int[] offsets, Object[] values) {
+        this.keys = keys;
+        this.offsets = offsets;
+        this.values = values;
+    }
+
+    static <V> LongMultimap<V> group(List<V> rows, ToLongFunction<V> keyGetter) {
+        int n = rows.size();
+        long[] rowKeys = new long[n];
+        for (int i = 0; i < n; i++) {
+            rowKeys[i] = keyGetter.applyAsLong(rows.get(i));
+        }
+
+        long[] sorted = rowKeys.clone();
+        Arrays.sort(sorted);
+        int keyCount = 0;
+        for (int i = 0; i < n; i++) {
+            if (keyCount == 0 || sorted[i] != sorted[keyCount - 1]) {
+                sorted[keyCount++] = sorted[i];
+            }
+        }
+        long[] keys = Arrays.copyOf(sorted, keyCount);
+
+        // 키별 개수 -> 누적합으로 시작 위치를 구하고, rows 순서대로 자기 구간에 채운다.
+        int[] offsets = new int[keyCount + 1];
+        int[] slots = new int[n];
+        for (int i = 0; i < n; i++) {
+            slots[i] = Arrays.binarySearch(keys, rowKeys[i]);
+            offsets[slots[i] + 1]++;
+        }
+        for (int k = 0; k < keyCount; k++) {
+            offsets[k + 1] += offsets[k];
+        }
+        int[] cursor = Arrays.copyOf(offsets, keyCount);
+        Object[] values = new Object[n];
+        for (int i = 0; i < n; i++) {
+            values[cursor[slots[i]]++] = rows.get(i);
+        }
+        return new LongMultimap<>(keys, offsets, values);
+    }
+
+    /**
+     * @return key 의 값 목록, 없으면 null (Map.get 과 같다)
+     */
+    List<V> get(long key) {
+        int k = Arrays.binarySearch(keys, key);
+        if (k < 0) {
+            return null;
+        }
+        return new Slice(offsets[k], offsets[k + 1]);
+    }
+
+    int keyCount() {
+        return keys.length;
+    }
+
+    private final class Slice extends AbstractList<V> implements RandomAccess {
+
+        private final int from;
+        private final int to;
+
+        Slice(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public V get(int index) {
+            if (index < 0 || index >= to - from) {
+                throw new IndexOutOfBoundsException("index=" + index + ", size=" + size());
+            }
+            return (V) values[from + index];
+        }
+
+        @Override
+        public int size() {
+            return to - from;
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package jpabook.jpashop.repository.order.query;
+
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.OrderStatus;
+import jpabook.jpashop.repository.BatchInLoader;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * <h2>주문 DTO 병렬 조립기 (V5.1)</h2>
+ * <p>
+ *     V5(findAllByDto_optimization) 는 루트 쿼리와 주문상품 IN 쿼리를 한 쓰레드에서 차례로 실행한다.
+ *     여기서는 루트 쿼리로 주문 id, 회원 id, 배송 id 만 읽고,
+ *     서로 의존하지 않는 자식 조회(회원 이름, 배송 주소, 주문상품, 상품 카테고리)를
+ *     각자 별도 읽기전용 트랜잭션(=별도 커넥션)에서 동시에 실행한 뒤 id 로 합친다.
+ *     페이지가 크면 지연시간이 자식 쿼리들의 합이 아니라 가장 느린 쿼리 하나에 가까워진다.
+ * </p>
+ * <li>요청 하나가 커넥션을 최대 1 + 4 개 쓴다. parallelism 은 커넥션 풀 크기보다 충분히 작게 잡아야 한다.</li>
+ * <li>자식 조회는 서로 다른 시점의 스냅샷을 볼 수 있다. (읽기 전용 목록 화면 용도)</li>
+ * <li>자식 조회는 다른 쓰레드에서 실행되므로 요청별 SQL 통계(SqlStatistics)에는 루트 쿼리만 잡힌다.</li>
+ * <li>id 는 LongIds 로 모으고, id 로 합칠 때는 LongKeyMap 을 써서 id 박싱/Entry 할당을 줄인다.</li>
+ */
+@Component
+public class OrderFanOutAssembler {
+
+    private final EntityManager em;
+    private final BatchInLoader batchInLoader;
+    private final ExecutorService executor;
+    private final TransactionTemplate readOnlyTx;
+
+    public OrderFanOutAssembler(EntityManager em,
+                                BatchInLoader batchInLoader,
+                                @Value("${jpashop.order-fan-out.parallelism:4}") int parallelism,
+                                PlatformTransactionManager transactionManager) {
+        this.em = em;
+        this.batchInLoader = batchInLoader;
+        AtomicInteger seq = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(parallelism, r -> {
+            Thread thread = new Thread(r, "order-fan-out-" + seq.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+        this.readOnlyTx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    public List<OrderQueryDto> findAll() {
+        return assemble(readOnlyTx.execute(status -> findRoots(null, 0)));
+    }
+
+    /**
+     * 키셋 페이징 : lastOrderId 이후의 주문을 limit 건 조회
+     */
+    public List<OrderQueryDto> findAll(Long lastOrderId, int limit) {
+        return assemble(readOnlyTx.execute(status -> findRoots(lastOrderId, limit)));
+    }
+
+    /**
+     * 루트 : 주문 + FK 만 읽는다. 회원/배송은 조인하지 않는다.
+     * <p>[o.id, o.orderDate, o.status, member_id, delivery_id]</p>
+     */
+    private List<Object[]> findRoots(Long lastOrderId, int limit) {
+        TypedQuery<Object[]> query = em.createQuery(
+                        "SELECT o.id, o.orderDate, o.status, o.member.id, o.delivery.id" +
+                                " FROM Order o" +
+                                " WHERE o.id > :lastOrderId" +
+                                " ORDER BY o.id", Object[].class)
+                .setParameter("lastOrderId", lastOrderId == null ? 0L : lastOrderId);
+        if (limit > 0) {
+            query.setMaxResults(limit);
+        }
+        return query.getResultList();
+    }
+
+    private List<OrderQueryDto> assemble(List<Object[]> roots) {
+        if (roots.isEmpty()) {
+            return new ArrayList<>();
+        }
+        LongIds orderIdList = new LongIds(roots.size());
+        LongIds memberIdList = new LongIds(roots.size());
+        LongIds deliveryIdList = new LongIds(roots.size());
+        for (Object[] root : roots) {
+            orderIdList.add((Long) root[0]);
+            memberIdList.add((Long) root[3]);
+            deliveryIdList.add((Long) root[4]);
+        }
+        Set<Long> orderIds = orderIdList.distinct();
+        Set<Long> memberIds = memberIdList.distinct();
+        Set<Long> deliveryIds = deliveryIdList.distinct();
+
+        // 네 조회는 서로의 결과가 필요 없으므로 한번에 던져놓고 기다린다.
+        CompletableFuture<List<Object[]>> members = supply(() -> batchInLoader.loadInCurrentTransaction(memberIds, ids -> em.createQuery(
+                        "SELECT m.id, m.name FROM Member m WHERE m.id in :ids", Object[].class)
+                .setParameter("ids", ids)
+                .getResultList()));
+        CompletableFuture<List<Object[]>> deliveries = supply(() -> batchInLoader.loadInCurrentTransaction(deliveryIds, ids -> em.createQuery(
+                        "SELECT d.id, d.address FROM Delivery d WHERE d.id in :ids", Object[].class)
+                .setParameter("ids", ids)
+                .getResultList()));
+        CompletableFuture<List<Object[]>> orderItems = supply(() -> batchInLoader.loadInCurrentTransaction(orderIds, ids -> em.createQuery(
+                        "SELECT oi.order.id, i.id, i.name, oi.orderPrice, oi.count" +
+                                " FROM OrderItem oi" +
+                                " JOIN oi.item i" +
+                                " WHERE oi.order.id in :ids" +
+                                " ORDER BY oi.id", Object[].class)
+                .setParameter("ids", ids)
+                .getResultList()));
+        // 카테고리는 상품 id 가 아니라 주문 id 로 조회해야 주문상품 조회를 기다리지 않아도 된다.
+        CompletableFuture<List<Object[]>> categories = supply(() -> batchInLoader.loadInCurrentTransaction(orderIds, ids -> em.createQuery(
+                        "SELECT DISTINCT i.id, c.name" +
+                                " FROM OrderItem oi" +
+                                " JOIN oi.item i" +
+                                " JOIN i.categories c" +
+                                " WHERE oi.order.id in :ids", Object[].class)
+                .setParameter("ids", ids)
+                .getResultList()));
+
+        LongKeyMap<String> memberNames = new LongKeyMap<>(roots.size());
+        for (Object[] row : join(members)) {
+            memberNames.put((Long) row[0], (String) row[1]);
+        }
+        LongKeyMap<Address> addresses = new LongKeyMap<>(roots.size());
+        for (Object[] row : join(deliveries)) {
+            addresses.put((Long) row[0], (Address) row[1]);
+        }
+        List<Object[]> categoryRows = join(categories);
+        LongKeyMap<List<String>> categoryNames = new LongKeyMap<>(categoryRows.size());
+        for (Object[] row : categoryRows) {
+            long itemId = (Long) row[0];
+            List<String> names = categoryNames.get(itemId);
+            if (names == null) {
+                names = new ArrayList<>();
+                categoryNames.put(itemId, names);
+            }
+            names.add((String) row[1]);
+        }
+
+        LongKeyMap<OrderQueryDto> orders = new LongKeyMap<>(roots.size());
+        List<OrderQueryDto> result = new ArrayList<>(roots.size());
+        for (Object[] root : roots) {
+            OrderQueryDto order = new OrderQueryDto((Long) root[0], memberNames.get((Long) root[3]),
+                    (LocalDateTime) root[1], (OrderStatus) root[2], addresses.get((Long) root[4]), new ArrayList<>());
+            orders.put(order.getOrderId(), order);
+            result.add(order);
+        }
+        for (Object[] row : join(orderItems)) {
+            long orderId = (Long) row[0];
+            OrderItemQueryDto orderItem = new OrderItemQueryDto(orderId, (String) row[2], (Integer) row[3], (Integer) row[4]);
+            List<String> names = categoryNames.get((Long) row[1]);
+            orderItem.setCategoryNames(names == null ? new ArrayList<>() : names);
+            orders.get(orderId).getOrderItems().add(orderItem);
+        }
+        return result;
+    }
+
+    private CompletableFuture<List<Object[]>> supply(Supplier<List<Object[]>> query) {
+        return CompletableFuture.supplyAsync(() -> readOnlyTx.execute(status -> query.get()), executor);
+    }
+
+    private static List<Object[]> join(CompletableFuture<List<Object[]>> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
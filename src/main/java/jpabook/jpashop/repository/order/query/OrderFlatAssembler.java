@@ -0,0 +1,71 @@
+package jpabook.jpashop.repository.order.query;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * <h2>플랫 데이터(OrderFlatDto) -> OrderQueryDto 조립기</h2>
+ * <p>
+ *     groupingBy 는 row 마다 키로 쓸 OrderQueryDto 를 새로 만들고 equals/hashCode 로 HashMap 에 모으기 때문에
+ *     쓰레기 객체가 많이 생기고 DB 에서 정렬한 순서도 잃어버린다.
+ * </p>
+ * <p>
+ *     flat 조회를 ORDER BY o.id 로 하면 같은 주문의 row 는 항상 연속으로 나오므로,
+ *     한번만 훑으면서 orderId 가 바뀔때마다 이전 주문을 완성해서 내보내면 된다.
+ * </p>
+ * <li>주문 순서는 DB 정렬 순서(orderId 오름차순) 그대로 유지된다.</li>
+ * <li>limit 개의 주문을 내보내면 더 이상 row 를 읽지 않는다. -> 스트리밍 조회와 같이 쓰면 커서 페이징이 된다.</li>
+ */
+public final class OrderFlatAssembler {
+
+    private OrderFlatAssembler() {
+    }
+
+    /**
+     * orderId 로 정렬된 flats 를 주문 단위로 묶는다.
+     */
+    public static List<OrderQueryDto> assemble(List<OrderFlatDto> flats) {
+        List<OrderQueryDto> result = new ArrayList<>();
+        assemble(flats.iterator(), Integer.MAX_VALUE, result::add);
+        return result;
+    }
+
+    /**
+     * orderId 로 정렬된 flats 를 읽으면서 주문이 완성될때마다 consumer 에 넘긴다.
+     * @param limit 최대 주문 수
+     * @return 내보낸 주문 수
+     */
+    public static int assemble(Iterator<OrderFlatDto> flats, int limit, Consumer<OrderQueryDto> consumer) {
+        int emitted = 0;
+        OrderQueryDto current = null;
+        long currentOrderId = 0;
+
+        while (flats.hasNext()) {
+            OrderFlatDto flat = flats.next();
+            long orderId = flat.getOrderId();
+
+            if (current == null || currentOrderId != orderId) {
+                if (current != null) {
+                    consumer.accept(current);
+                    emitted++;
+                }
+                if (emitted >= limit) {
+                    return emitted;
+                }
+                current = new OrderQueryDto(flat.getOrderId(), flat.getName(), flat.getOrderDate(),
+                        flat.getOrderStatus(), flat.getAddress(), new ArrayList<>());
+                currentOrderId = orderId;
+            }
+            current.getOrderItems().add(
+                    new OrderItemQueryDto(flat.getOrderId(), flat.getItemName(), flat.getOrderPrice(), flat.getCount()));
+        }
+
+        if (current != null) {
+            consumer.accept(current);
+            emitted++;
+        }
+        return emitted;
+    }
+}
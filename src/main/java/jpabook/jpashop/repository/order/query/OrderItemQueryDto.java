@@ -1,7 +1,10 @@
 package jpabook.jpashop.repository.order.query;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.Data;
 
+import java.util.List;
+
 @Data
 public class OrderItemQueryDto {
 
@@ -9,6 +12,8 @@ public class OrderItemQueryDto {
     private String itemName;
     private int orderPrice;
     private int count;
+    @JsonInclude(JsonInclude.Include.NON_NULL) // V5.1 (OrderFanOutAssembler) 에서만 채운다.
+    private List<String> categoryNames;
 
     public OrderItemQueryDto(Long orderId, String itemName, int orderPrice, int count) {
         this.orderId = orderId;
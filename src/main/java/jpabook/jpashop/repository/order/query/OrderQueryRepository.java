@@ -1,27 +1,45 @@
 package jpabook.jpashop.repository.order.query;
 
+import jpabook.jpashop.repository.BatchInLoader;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.annotations.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import javax.persistence.EntityManager;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Repository
 @RequiredArgsConstructor
 public class OrderQueryRepository {
 
+    private static final int PAGE_FETCH_SIZE = 500; // 키셋 페이지를 스트리밍할 때 한번에 가져오는 row 수
+
     private final EntityManager em;
+    private final BatchInLoader batchInLoader;
 
 
     public List<OrderQueryDto> findByOrderQueryDtos() {
         List<OrderQueryDto> result = findOrders();
+        fillOrderItems(result);
+        return result;
+    }
+
+    /**
+     * V4 키셋 페이징 : lastOrderId 이후의 주문을 limit 건 조회
+     */
+    public List<OrderQueryDto> findByOrderQueryDtos(Long lastOrderId, int limit) {
+        List<OrderQueryDto> result = findOrders(lastOrderId, limit);
+        fillOrderItems(result);
+        return result;
+    }
+
+    private void fillOrderItems(List<OrderQueryDto> result) {
         result.forEach(o -> {
             List<OrderItemQueryDto> orderItems = findOrderItems(o.getOrderId());
             o.setOrderItems(orderItems);
         });
-        return result;
     }
 
     private List<OrderItemQueryDto> findOrderItems(Long orderId) {
@@ -43,44 +61,112 @@ public class OrderQueryRepository {
                 .getResultList();
     }
 
+    /**
+     * 키셋(seek) 페이징 : offset 없이 PK 인덱스로 lastOrderId 다음 위치부터 읽는다.
+     */
+    private List<OrderQueryDto> findOrders(Long lastOrderId, int limit) {
+        return em.createQuery(
+                        "SELECT NEW jpabook.jpashop.repository.order.query.OrderQueryDto(o.id, m.name, o.orderDate, o.status, d.address)" +
+                                " FROM Order o" +
+                                " JOIN o.member m" +
+                                " JOIN o.delivery d" +
+                                " WHERE o.id > :lastOrderId" +
+                                " ORDER BY o.id", OrderQueryDto.class)
+                .setParameter("lastOrderId", lastOrderId == null ? 0L : lastOrderId)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
     public List<OrderQueryDto> findAllByDto_optimization() {
         List<OrderQueryDto> result = findOrders();
+        fillOrderItemsByIn(result);
+        return result;
+    }
 
-        Map<Long, List<OrderItemQueryDto>> orderItemMap = findOrderItemMap(toOrderIds(result));
+    /**
+     * V5 키셋 페이징 : lastOrderId 이후의 주문을 limit 건 조회하고 orderItem 은 IN 쿼리 1번으로 채운다.
+     */
+    public List<OrderQueryDto> findAllByDto_optimization(Long lastOrderId, int limit) {
+        List<OrderQueryDto> result = findOrders(lastOrderId, limit);
+        fillOrderItemsByIn(result);
+        return result;
+    }
 
-        result.forEach(o->o.setOrderItems(orderItemMap.get(o.getOrderId())));
+    private void fillOrderItemsByIn(List<OrderQueryDto> result) {
+        if (result.isEmpty()) {
+            return;
+        }
+        LongMultimap<OrderItemQueryDto> orderItemMap = findOrderItemMap(LongIds.of(result, OrderQueryDto::getOrderId));
 
-        return result;
+        result.forEach(o->o.setOrderItems(orderItemMap.get(o.getOrderId())));
     }
 
-    private Map<Long, List<OrderItemQueryDto>> findOrderItemMap(List<Long> orderIds) {
-        List<OrderItemQueryDto> orderItems = em.createQuery("SELECT NEW jpabook.jpashop.repository.order.query.OrderItemQueryDto(oi.order.id, i.name, oi.orderPrice, oi.count)" +
+    /**
+     * 주문 id 가 많으면 DB 파라미터 제한에 걸리므로 BatchInLoader 로 나눠서(+패딩) 조회한다.
+     * <li>id 는 long[] 로 모으고(LongIds), 주문별 묶음도 HashMap&lt;Long, List&gt; 대신 LongMultimap 으로 만든다.
+     *     주문이 많을수록 id 박싱, Entry, 키별 ArrayList 할당이 크게 준다.</li>
+     */
+    private LongMultimap<OrderItemQueryDto> findOrderItemMap(LongIds orderIds) {
+        List<OrderItemQueryDto> orderItems = batchInLoader.load(orderIds.distinct(), ids -> em.createQuery(
+                        "SELECT NEW jpabook.jpashop.repository.order.query.OrderItemQueryDto(oi.order.id, i.name, oi.orderPrice, oi.count)" +
                         " FROM OrderItem oi" +
                         " JOIN oi.item i" +
                         " WHERE oi.order.id in :orderIds", OrderItemQueryDto.class)
-                .setParameter("orderIds", orderIds)
+                .setParameter("orderIds", ids)
+                .getResultList());
+
+        return LongMultimap.group(orderItems, OrderItemQueryDto::getOrderId);
+    }
+
+    public List<OrderFlatDto> findAllByDto_flat() {
+        return em.createQuery(
+                "SELECT new jpabook.jpashop.repository.order.query.OrderFlatDto(o.id,m.name,o.orderDate,o.status,d.address,i.name,oi.orderPrice,oi.count)" +
+                        " FROM Order o" +
+                        " JOIN o.member m" +
+                        " JOIN o.delivery d" +
+                        " JOIN o.orderItems oi" +
+                        " JOIN oi.item i" +
+                        " ORDER BY o.id, oi.id", OrderFlatDto.class)
                 .getResultList();
+    }
 
-        Map<Long, List<OrderItemQueryDto>> orderItemMap = orderItems.stream()
-                .collect(Collectors.groupingBy(OrderItemQueryDto::getOrderId));
-        return orderItemMap;
+    /**
+     * V6 키셋 페이징
+     * <li>flat 조회는 row 가 주문 x 주문상품 만큼 나오므로 setMaxResults 로는 주문 단위 페이징을 할 수 없다.</li>
+     * <li>lastOrderId 이후부터 스트리밍으로 읽으면서 주문을 limit 개 조립하면 나머지 row 는 읽지 않고 닫는다.</li>
+     * <li>스트리밍 조회이므로 트랜잭션 안에서 호출한다. (OrderQueryService)</li>
+     */
+    public List<OrderQueryDto> findAllByDto_flat(Long lastOrderId, int limit) {
+        List<OrderQueryDto> result = new ArrayList<>();
+        try (Stream<OrderFlatDto> flats = streamFlats(lastOrderId, PAGE_FETCH_SIZE)) {
+            OrderFlatAssembler.assemble(flats.iterator(), limit, result::add);
+        }
+        return result;
     }
 
-    private static List<Long> toOrderIds(List<OrderQueryDto> result) {
-        List<Long> orderIds = result.stream()
-                .map(o -> o.getOrderId())
-                .collect(Collectors.toList());
-        return orderIds;
+    /**
+     * 플랫 데이터를 스트리밍으로 조회 (대용량 export 용)
+     * <li>getResultList() 처럼 전체를 List 로 만들지 않고 fetchSize 단위로 DB 에서 읽어온다.</li>
+     * <li>같은 주문의 row 가 연속으로 나오도록 ORDER BY o.id 를 보장한다. -> orderId 가 바뀔때마다 주문 1개를 완성할 수 있다.</li>
+     * <li>DTO 로 바로 조회하므로 영속성 컨텍스트에 엔티티가 쌓이지 않는다.</li>
+     * <li>트랜잭션 안에서 사용하고 다 읽은 뒤에는 반드시 close 해야 커넥션이 반환된다.</li>
+     */
+    public Stream<OrderFlatDto> streamAllByDto_flat(int fetchSize) {
+        return streamFlats(null, fetchSize);
     }
 
-    public List<OrderFlatDto> findAllByDto_flat() {
+    private Stream<OrderFlatDto> streamFlats(Long lastOrderId, int fetchSize) {
         return em.createQuery(
                 "SELECT new jpabook.jpashop.repository.order.query.OrderFlatDto(o.id,m.name,o.orderDate,o.status,d.address,i.name,oi.orderPrice,oi.count)" +
                         " FROM Order o" +
                         " JOIN o.member m" +
                         " JOIN o.delivery d" +
                         " JOIN o.orderItems oi" +
-                        " JOIN oi.item i", OrderFlatDto.class)
-                .getResultList();
+                        " JOIN oi.item i" +
+                        " WHERE o.id > :lastOrderId" +
+                        " ORDER BY o.id, oi.id", OrderFlatDto.class)
+                .setParameter("lastOrderId", lastOrderId == null ? 0L : lastOrderId)
+                .setHint(QueryHints.FETCH_SIZE, fetchSize)
+                .getResultStream();
     }
 }
@@ -0,0 +1,29 @@
+package jpabook.jpashop.repository.order.search;
+
+import org.apache.lucene.analysis.core.LowerCaseFilterFactory;
+import org.apache.lucene.analysis.ngram.NGramFilterFactory;
+import org.apache.lucene.analysis.standard.StandardTokenizerFactory;
+import org.hibernate.search.backend.lucene.analysis.LuceneAnalysisConfigurationContext;
+import org.hibernate.search.backend.lucene.analysis.LuceneAnalysisConfigurer;
+
+/**
+ * 이름 검색용 analyzer
+ * <p>
+ *     "호날두" -> 호날, 날두, 호날두 처럼 2~3 글자 조각으로 색인해서 이름 중간 일부로도 찾을 수 있게 한다. (like '%x%' 대신)
+ *     검색어도 같은 방식으로 쪼개서 많이 겹칠수록 점수가 높다.
+ * </p>
+ * hibernate.search.backend.analysis.configurer 로 등록한다.
+ */
+public class NameAnalysisConfigurer implements LuceneAnalysisConfigurer {
+
+    @Override
+    public void configure(LuceneAnalysisConfigurationContext context) {
+        context.analyzer("name").custom()
+                .tokenizer(StandardTokenizerFactory.class)
+                .tokenFilter(LowerCaseFilterFactory.class)
+                .tokenFilter(NGramFilterFactory.class)
+                        .param("minGramSize", "2")
+                        .param("maxGramSize", "3")
+                        .param("preserveOriginal", "true");
+    }
+}
@@ -0,0 +1,11 @@
+package jpabook.jpashop.repository.order.search;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class OrderSearchHit {
+    private Long orderId;
+    private float score; //관련도, 높을수록 먼저
+}
@@ -0,0 +1,43 @@
+package jpabook.jpashop.repository.order.search;
+
+import jpabook.jpashop.domain.Order;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.search.mapper.orm.Search;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+
+/**
+ * 주문 전문 검색 (Hibernate Search + 로컬 Lucene 인덱스)
+ * <p>
+ *     회원 이름, 주문상품 이름, 저자/아티스트/감독/배우 일부로 주문을 찾는다.
+ *     like '%x%' 처럼 테이블을 다 읽지 않고 인덱스에서 관련도 순으로 주문 id 만 꺼낸다. (엔티티를 로딩하지 않음)
+ * </p>
+ * <li>색인은 엔티티 변경을 커밋할때 Hibernate Search 리스너가 비동기로 반영한다. 커밋 직후 잠깐은 검색되지 않을 수 있다.</li>
+ * <li>ISBN 은 전체가 일치해야 한다.</li>
+ */
+@Repository
+@RequiredArgsConstructor
+public class OrderTextSearchRepository {
+
+    private static final String[] TEXT_FIELDS = {
+            "orderItems.item.name",
+            "orderItems.item.author",
+            "orderItems.item.artist",
+            "orderItems.item.director",
+            "orderItems.item.actor"};
+
+    private final EntityManager em;
+
+    @Transactional(readOnly = true)
+    public List<OrderSearchHit> search(String text, int limit) {
+        return Search.session(em).search(Order.class)
+                .select(f -> f.composite(OrderSearchHit::new, f.id(Long.class), f.score()))
+                .where(f -> f.bool()
+                        .should(f.match().field("member.name").boost(2.0f).fields(TEXT_FIELDS).matching(text))
+                        .should(f.match().field("orderItems.item.isbn").matching(text)))
+                .fetchHits(limit);
+    }
+}
@@ -0,0 +1,32 @@
+package jpabook.jpashop.repository.order.summary;
+
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.DeliveryStatus;
+import jpabook.jpashop.domain.OrderStatus;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+public class OrderSummaryDto {
+    private Long orderId;
+    private String name;
+    private LocalDateTime orderDate;
+    private OrderStatus orderStatus;
+    private Address address;
+    private DeliveryStatus deliveryStatus;
+    private int itemCount;
+    private int totalPrice;
+
+    public OrderSummaryDto(Long orderId, String name, LocalDateTime orderDate, OrderStatus orderStatus, Address address,
+                           DeliveryStatus deliveryStatus, int itemCount, int totalPrice) {
+        this.orderId = orderId;
+        this.name = name;
+        this.orderDate = orderDate;
+        this.orderStatus = orderStatus;
+        this.address = address;
+        this.deliveryStatus = deliveryStatus;
+        this.itemCount = itemCount;
+        this.totalPrice = totalPrice;
+    }
+}
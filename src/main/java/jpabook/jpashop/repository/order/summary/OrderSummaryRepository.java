@@ -0,0 +1,120 @@
+package jpabook.jpashop.repository.order.summary;
+
+import jpabook.jpashop.domain.DeliveryStatus;
+import jpabook.jpashop.domain.OrderStatus;
+import jpabook.jpashop.domain.OrderSummary;
+import jpabook.jpashop.repository.NamedQueryCache;
+import jpabook.jpashop.repository.OrderSearch;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.annotations.QueryHints;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
+import java.util.List;
+
+/**
+ * 주문 목록은 order_summary 한 테이블만 읽는다. (조인 없음, 총 금액 계산 없음)
+ */
+@Repository
+@RequiredArgsConstructor
+public class OrderSummaryRepository {
+
+    private final EntityManager em;
+    private final NamedQueryCache searchQueries = new NamedQueryCache("OrderSummary.search");
+
+    public void save(OrderSummary summary) {
+        em.persist(summary);
+    }
+
+    public OrderSummary findOne(Long orderId) {
+        return em.find(OrderSummary.class, orderId);
+    }
+
+    /**
+     * 주문 목록 화면 : OrderRepository.search 와 같은 검색 조건 (최대 1000건)
+     */
+    public List<OrderSummary> findAll(OrderSearch orderSearch) {
+        int filters = orderSearch.filters();
+        TypedQuery<OrderSummary> query = em.createNamedQuery(
+                        searchQueries.name(em, filters, OrderSummaryRepository::searchJpql), OrderSummary.class)
+                .setHint(QueryHints.READ_ONLY, true) // 화면에 보여주기만 한다. (상태 변경은 벌크 update)
+                .setMaxResults(1000);
+        if ((filters & OrderSearch.STATUS) != 0) {
+            query.setParameter("status", orderSearch.getOrderStatus());
+        }
+        if ((filters & OrderSearch.MEMBER_NAME) != 0) {
+            query.setParameter("name", orderSearch.memberNamePrefix());
+        }
+        if ((filters & OrderSearch.ORDER_DATE_FROM) != 0) {
+            query.setParameter("from", orderSearch.getOrderDateFrom().atStartOfDay());
+        }
+        if ((filters & OrderSearch.ORDER_DATE_TO) != 0) {
+            query.setParameter("to", orderSearch.getOrderDateTo().plusDays(1).atStartOfDay());
+        }
+        if ((filters & OrderSearch.DELIVERY_STATUS) != 0) {
+            query.setParameter("deliveryStatus", orderSearch.getDeliveryStatus());
+        }
+        return query.getResultList();
+    }
+
+    private static String searchJpql(int filters) {
+        StringBuilder jpql = new StringBuilder("select s from OrderSummary s where 1 = 1");
+        if ((filters & OrderSearch.STATUS) != 0) {
+            jpql.append(" and s.status = :status");
+        }
+        if ((filters & OrderSearch.MEMBER_NAME) != 0) {
+            jpql.append(" and s.memberName like :name escape '\\'");
+        }
+        if ((filters & OrderSearch.ORDER_DATE_FROM) != 0) {
+            jpql.append(" and s.orderDate >= :from");
+        }
+        if ((filters & OrderSearch.ORDER_DATE_TO) != 0) {
+            jpql.append(" and s.orderDate < :to");
+        }
+        if ((filters & OrderSearch.DELIVERY_STATUS) != 0) {
+            jpql.append(" and s.deliveryStatus = :deliveryStatus");
+        }
+        return jpql.append(" order by s.orderId").toString();
+    }
+
+    /**
+     * API 용 : 필요한 컬럼만 DTO 로, 키셋(seek) 페이징
+     * @param lastOrderId 이전 페이지의 마지막 주문 id, 첫 페이지는 null
+     */
+    public List<OrderSummaryDto> findSummaryDtos(Long lastOrderId, int limit) {
+        return em.createQuery(
+                        "select new jpabook.jpashop.repository.order.summary.OrderSummaryDto(" +
+                                "s.orderId, s.memberName, s.orderDate, s.status, s.address, s.deliveryStatus, s.itemCount, s.totalPrice)" +
+                                " from OrderSummary s" +
+                                " where s.orderId > :lastOrderId" +
+                                " order by s.orderId", OrderSummaryDto.class)
+                .setParameter("lastOrderId", lastOrderId == null ? 0L : lastOrderId)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    public int updateStatus(Long orderId, OrderStatus status) {
+        return em.createQuery("update OrderSummary s set s.status = :status where s.orderId = :orderId")
+                .setParameter("status", status)
+                .setParameter("orderId", orderId)
+                .executeUpdate();
+    }
+
+    public int updateDeliveryStatus(Long orderId, DeliveryStatus deliveryStatus) {
+        return em.createQuery("update OrderSummary s set s.deliveryStatus = :deliveryStatus where s.orderId = :orderId")
+                .setParameter("deliveryStatus", deliveryStatus)
+                .setParameter("orderId", orderId)
+                .executeUpdate();
+    }
+
+    /**
+     * 회원 이름이 바뀌면 그 회원의 요약도 같이 바꾼다.
+     */
+    public int updateMemberName(Long memberId, String memberName) {
+        return em.createQuery("update OrderSummary s set s.memberName = :memberName where s.memberId = :memberId")
+                .setParameter("memberName", memberName)
+                .setParameter("memberId", memberId)
+                .executeUpdate();
+    }
+}
@@ -2,6 +2,7 @@ package jpabook.jpashop.service;
 
 import jpabook.jpashop.domain.Member;
 import jpabook.jpashop.repository.MemberRepository;
+import jpabook.jpashop.repository.order.summary.OrderSummaryRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -14,6 +15,7 @@ import java.util.List;
 public class MemberService {
 
     private final MemberRepository memberRepository;
+    private final OrderSummaryRepository orderSummaryRepository;
 
     /**
      * 회원가입
@@ -54,5 +56,6 @@ public class MemberService {
     public void update(Long id, String name) {
         Member memberEntity = memberRepository.findOne(id);
         memberEntity.setName(name);
+        orderSummaryRepository.updateMemberName(id, name); //주문 요약에 복사해 둔 이름도 바꾼다.
     }
 }
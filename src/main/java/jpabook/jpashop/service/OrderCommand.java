@@ -0,0 +1,24 @@
+package jpabook.jpashop.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * 주문 1건 (회원 1명 + 주문상품 여러개)
+ */
+@Getter
+@AllArgsConstructor
+public class OrderCommand {
+
+    private Long memberId;
+    private List<Line> lines;
+
+    @Getter
+    @AllArgsConstructor
+    public static class Line {
+        private Long itemId;
+        private int count;
+    }
+}
@@ -0,0 +1,68 @@
+package jpabook.jpashop.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jpabook.jpashop.repository.order.query.OrderFlatAssembler;
+import jpabook.jpashop.repository.order.query.OrderFlatDto;
+import jpabook.jpashop.repository.order.query.OrderQueryRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.stream.Stream;
+
+/**
+ * 주문 전체 export
+ * <p>
+ *     주문 전체를 List 로 만들어서 한번에 직렬화하면 주문 테이블 크기만큼 힙이 필요하다.
+ *     DB 에서 스트리밍으로 읽으면서 주문 1개가 완성될때마다 바로 응답에 써서 메모리 사용량을 일정하게 유지한다.
+ * </p>
+ */
+@Service
+@Transactional(readOnly = true)
+@RequiredArgsConstructor
+public class OrderExportService {
+
+    private static final int FETCH_SIZE = 1000;
+    private static final int FLUSH_THRESHOLD = 64 * 1024; // 버퍼가 64KB 쌓이면 클라이언트로 flush
+
+    private final OrderQueryRepository orderQueryRepository;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * 주문을 NDJSON (한 줄에 주문 1개) 형식으로 out 에 쓴다.
+     * @return 내보낸 주문 수
+     */
+    public long exportOrders(OutputStream out) throws IOException {
+        try (Stream<OrderFlatDto> flats = orderQueryRepository.streamAllByDto_flat(FETCH_SIZE);
+             JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            // 최상위 값을 연달아 쓰면 Jackson 이 값 사이에 기본 구분자(" ")를 넣는다. 줄바꿈은 직접 쓴다.
+            generator.setRootValueSeparator(null);
+            // 주문마다 flush 하지 않고 버퍼가 쌓였을 때만 flush 한다.
+            ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+
+            // ORDER BY o.id 로 조회하기 때문에 주문이 완성될때마다 바로 쓸 수 있다.
+            int exported = OrderFlatAssembler.assemble(flats.iterator(), Integer.MAX_VALUE, order -> {
+                try {
+                    writer.writeValue(generator, order);
+                    generator.writeRaw('\n');
+                    if (generator.getOutputBuffered() >= FLUSH_THRESHOLD) {
+                        generator.flush();
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            generator.flush();
+            return exported;
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package jpabook.jpashop.service;
+
+import jpabook.jpashop.repository.order.query.OrderQueryDto;
+import jpabook.jpashop.repository.order.query.OrderQueryRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * 트랜잭션이 필요한 주문 조회 (스트리밍 조회는 트랜잭션 안에서 커넥션을 쥐고 읽는다)
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class OrderQueryService {
+
+    private final OrderQueryRepository orderQueryRepository;
+
+    /**
+     * V6 키셋 페이징 : lastOrderId 이후의 주문을 limit 개
+     */
+    public List<OrderQueryDto> findOrdersFlat(Long lastOrderId, int limit) {
+        return orderQueryRepository.findAllByDto_flat(lastOrderId, limit);
+    }
+}
@@ -1,59 +1,197 @@
 package jpabook.jpashop.service;
 
 import jpabook.jpashop.domain.Delivery;
+import jpabook.jpashop.domain.DeliveryStatus;
 import jpabook.jpashop.domain.Member;
 import jpabook.jpashop.domain.Order;
 import jpabook.jpashop.domain.OrderItem;
+import jpabook.jpashop.domain.OrderStatus;
+import jpabook.jpashop.domain.OrderSummary;
 import jpabook.jpashop.domain.item.Item;
+import jpabook.jpashop.repository.FetchPlan;
 import jpabook.jpashop.repository.ItemRepository;
 import jpabook.jpashop.repository.MemberRepository;
 import jpabook.jpashop.repository.OrderRepository;
 import jpabook.jpashop.repository.OrderSearch;
+import jpabook.jpashop.repository.order.summary.OrderSummaryRepository;
+import jpabook.jpashop.service.stock.FlashSaleStock;
+import jpabook.jpashop.service.stock.StockReservation;
+import jpabook.jpashop.service.stock.StockReservations;
+import jpabook.jpashop.service.stock.StockStrategy;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class OrderService {
 
     private final OrderRepository orderRepository;
+    private final OrderSummaryRepository orderSummaryRepository;
     private final MemberRepository memberRepository;
     private final ItemRepository itemRepository;
+    private final StockReservations stockReservations;
+    private final FlashSaleStock flashSaleStock;
+    private final TransactionTemplate transactionTemplate;
+
     /**
      * 주문
      */
-    @Transactional
     public Long order(Long memberId, Long itemId, int count){
+        return order(memberId, itemId, count, resolve(itemId, stockReservations.getDefault()));
+    }
+
+    /**
+     * 재고 차감 전략을 지정해서 주문
+     */
+    public Long order(Long memberId, Long itemId, int count, StockStrategy strategy){
+        return order(memberId, itemId, count, resolve(itemId, stockReservations.get(strategy)));
+    }
+
+    /**
+     * 플래시 세일 상품은 재고를 메모리 카운터가 관리하므로 전략과 상관없이 카운터에서 차감해야 한다.
+     */
+    private StockReservation resolve(Long itemId, StockReservation reservation){
+        return flashSaleStock.isEnabled(itemId) ? flashSaleStock : reservation;
+    }
+
+    /**
+     * 낙관적 락은 커밋할때 충돌을 알 수 있고 그 트랜잭션은 이미 롤백되므로,
+     * 재시도는 트랜잭션 바깥에서 주문 전체를 다시 실행해야 한다.
+     */
+    private Long order(Long memberId, Long itemId, int count, StockReservation reservation){
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> placeOrder(memberId, itemId, count, reservation));
+            } catch (OptimisticLockingFailureException e) {
+                if (attempt >= reservation.maxAttempts()) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    private Long placeOrder(Long memberId, Long itemId, int count, StockReservation reservation){
         //엔티티 조회
         Member member = memberRepository.findOne(memberId);
-        Item item = itemRepository.findOne(itemId);
+
+        //재고 차감
+        Item item = reservation.reserve(itemId, count);
 
         //배송정보 생성
         Delivery delivery = new Delivery();
         delivery.setAddress(member.getAddress());
 
-        //주문상품 생성
-        OrderItem orderItem = OrderItem.createOrderItem(item, item.getPrice(), count);
+        //주문상품 생성 (재고는 위에서 이미 차감했다)
+        OrderItem orderItem = OrderItem.createReservedOrderItem(item, item.getPrice(), count);
 
         //주문 생성
         Order order = Order.createOrder(member, delivery, orderItem);
 
         //주문 저장
         orderRepository.save(order);
+        orderSummaryRepository.save(OrderSummary.create(order));
 
         return order.getId();
     }
 
+    /**
+     * 대량 주문 : 여러 주문(주문마다 여러 상품)을 한 트랜잭션에서 처리
+     * <li>회원과 상품은 주문마다 em.find 하지 않고 IN 쿼리로 한번에 조회한다.</li>
+     * <li>상품은 id 순서로 잠그고 차감해서, 동시에 들어온 대량 주문끼리 서로 반대 순서로 락을 잡는 데드락을 막는다.</li>
+     * <li>주문 insert 는 JDBC batch 로 묶여서 나간다. (hibernate.jdbc.batch_size, order_inserts)</li>
+     * @return 생성된 주문 id (요청 순서)
+     */
+    @Transactional
+    public List<Long> orders(List<OrderCommand> commands){
+        //회원 조회
+        Set<Long> memberIds = new HashSet<>();
+        Map<Long, Integer> countByItem = new TreeMap<>(); // 상품 id 순서로 정렬
+        for (OrderCommand command : commands) {
+            memberIds.add(command.getMemberId());
+            for (OrderCommand.Line line : command.getLines()) {
+                if (line.getCount() <= 0) {
+                    throw new IllegalArgumentException("주문수량은 1개 이상이어야 합니다.");
+                }
+                countByItem.merge(line.getItemId(), line.getCount(), Integer::sum);
+            }
+        }
+        Map<Long, Member> members = memberRepository.findAllById(memberIds).stream()
+                .collect(Collectors.toMap(Member::getId, m -> m));
+
+        //재고 차감 (플래시 세일 상품은 카운터에서, 나머지는 id 순서로 락을 잡고)
+        Map<Long, Item> items = new HashMap<>();
+        List<Long> lockItemIds = new ArrayList<>();
+        for (Map.Entry<Long, Integer> entry : countByItem.entrySet()) {
+            if (flashSaleStock.isEnabled(entry.getKey())) {
+                items.put(entry.getKey(), flashSaleStock.reserve(entry.getKey(), entry.getValue()));
+            } else {
+                lockItemIds.add(entry.getKey());
+            }
+        }
+        for (Item item : itemRepository.findAllByIdForUpdate(lockItemIds)) {
+            item.removeStock(countByItem.get(item.getId()));
+            items.put(item.getId(), item);
+        }
+
+        //주문 생성
+        List<Long> orderIds = new ArrayList<>(commands.size());
+        for (OrderCommand command : commands) {
+            Member member = members.get(command.getMemberId());
+            if (member == null) {
+                throw new IllegalArgumentException("존재하지 않는 회원입니다. memberId=" + command.getMemberId());
+            }
+            OrderItem[] orderItems = command.getLines().stream()
+                    .map(line -> {
+                        Item item = items.get(line.getItemId());
+                        if (item == null) {
+                            throw new IllegalArgumentException("존재하지 않는 상품입니다. itemId=" + line.getItemId());
+                        }
+                        return OrderItem.createReservedOrderItem(item, item.getPrice(), line.getCount());
+                    })
+                    .toArray(OrderItem[]::new);
+
+            Delivery delivery = new Delivery();
+            delivery.setAddress(member.getAddress());
+
+            Order order = Order.createOrder(member, delivery, orderItems);
+            orderRepository.save(order);
+            orderSummaryRepository.save(OrderSummary.create(order));
+            orderIds.add(order.getId());
+        }
+        return orderIds;
+    }
+
     /**
      * 주문 취소
      */
     @Transactional
     public void cancelOrder(Long orderId){
-        Order order = orderRepository.findOne(orderId);
-        order.cancel();
+        // 취소는 배송, 주문상품, 상품을 모두 건드리고 색인도 다시 하므로 한번에 조회한다.
+        Order order = orderRepository.findOne(orderId, FetchPlan.FULL);
+        order.cancel(flashSaleStock);
+        orderSummaryRepository.updateStatus(orderId, OrderStatus.CANCEL);
+    }
+
+    /**
+     * 배송 상태 변경 : 주문 목록(요약)의 배송상태 검색이 맞도록 요약도 같이 바꾼다.
+     */
+    @Transactional
+    public void changeDeliveryStatus(Long orderId, DeliveryStatus deliveryStatus){
+        Order order = orderRepository.findOne(orderId, FetchPlan.SUMMARY);
+        order.getDelivery().setStatus(deliveryStatus);
+        orderSummaryRepository.updateDeliveryStatus(orderId, deliveryStatus);
     }
 
     //검색
@@ -61,4 +199,12 @@ public class OrderService {
     public List<Order> findOrders(OrderSearch orderSearch){
         return orderRepository.findAllByString(orderSearch);
     }
+
+    /**
+     * 주문 목록 화면용 : 요약 테이블만 조회
+     */
+    @Transactional(readOnly = true)
+    public List<OrderSummary> findOrderSummaries(OrderSearch orderSearch){
+        return orderSummaryRepository.findAll(orderSearch);
+    }
 }
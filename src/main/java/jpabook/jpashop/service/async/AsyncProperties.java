@@ -0,0 +1,28 @@
+package jpabook.jpashop.service.async;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 비동기 조회 설정 (jpashop.async.*)
+ */
+@Component
+@ConfigurationProperties(prefix = "jpashop.async")
+@Getter @Setter
+public class AsyncProperties {
+
+    /**
+     * 쓰레드가 모두 바쁠때 대기할 수 있는 작업 수, 넘으면 503
+     */
+    private int queueSize = 100;
+
+    /**
+     * key : bulkhead 이름, value : 동시 실행 한도 (없으면 DB 쓰레드 수)
+     */
+    private Map<String, Integer> bulkheads = new LinkedHashMap<>();
+}
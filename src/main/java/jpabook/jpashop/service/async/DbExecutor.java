@@ -0,0 +1,88 @@
+package jpabook.jpashop.service.async;
+
+import jpabook.jpashop.exception.BulkheadFullException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * 조회 작업을 Tomcat 요청 쓰레드가 아닌 DB 전용 쓰레드에서 실행한다.
+ * <p>
+ *     무거운 조회(페치 조인 등)가 몰리면 요청 쓰레드가 전부 DB 를 기다리느라 가벼운 API 까지 줄을 서게 된다.
+ *     DB 작업은 커넥션 풀 크기만큼의 쓰레드에서만 돌리고 요청 쓰레드는 바로 반납한다. (JDK 11 이라 가상 쓰레드 대신 고정 풀)
+ * </p>
+ * <li>쓰레드 수 = Hikari maximum-pool-size : 더 많아도 커넥션을 기다릴 뿐이다.</li>
+ * <li>bulkhead : 엔드포인트별 동시 실행 한도, 넘으면 기다리지 않고 BulkheadFullException(503)</li>
+ * <li>작업은 읽기 전용 트랜잭션 안에서 실행되므로 지연 로딩, DTO 변환까지 작업 안에서 끝내야 한다.</li>
+ * <li>요청 쓰레드의 ThreadLocal(SqlStatistics 등)은 전달되지 않는다.</li>
+ */
+@Slf4j
+@Component
+public class DbExecutor {
+
+    private final ThreadPoolExecutor executor;
+    private final TransactionTemplate readOnlyTransaction;
+    private final int defaultPermits;
+    private final Map<String, Semaphore> bulkheads = new ConcurrentHashMap<>();
+
+    public DbExecutor(@Value("${spring.datasource.hikari.maximum-pool-size:10}") int poolSize,
+                      AsyncProperties properties,
+                      PlatformTransactionManager transactionManager) {
+        AtomicInteger sequence = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(properties.getQueueSize()),
+                r -> {
+                    Thread thread = new Thread(r, "db-executor-" + sequence.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.defaultPermits = poolSize;
+        properties.getBulkheads().forEach((name, permits) -> bulkheads.put(name, new Semaphore(permits)));
+        log.info("DB executor : threads={}, queue={}, bulkheads={}", poolSize, properties.getQueueSize(), properties.getBulkheads());
+    }
+
+    /**
+     * @param bulkhead 동시 실행 한도를 나누는 이름 (설정이 없으면 쓰레드 수만큼)
+     */
+    public <T> CompletableFuture<T> supply(String bulkhead, Supplier<T> work) {
+        Semaphore permits = bulkheads.computeIfAbsent(bulkhead, k -> new Semaphore(defaultPermits));
+        if (!permits.tryAcquire()) {
+            return failed(new BulkheadFullException("동시 요청이 너무 많습니다: " + bulkhead));
+        }
+        try {
+            return CompletableFuture
+                    .supplyAsync(() -> readOnlyTransaction.execute(status -> work.get()), executor)
+                    .whenComplete((result, e) -> permits.release());
+        } catch (RejectedExecutionException e) {
+            permits.release();
+            return failed(new BulkheadFullException("DB 작업 대기열이 가득 찼습니다: " + bulkhead));
+        }
+    }
+
+    private static <T> CompletableFuture<T> failed(Throwable e) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        future.completeExceptionally(e);
+        return future;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
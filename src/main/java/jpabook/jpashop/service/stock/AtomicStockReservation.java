@@ -0,0 +1,37 @@
+package jpabook.jpashop.service.stock;
+
+import jpabook.jpashop.domain.item.Item;
+import jpabook.jpashop.exception.NotEnoughStockException;
+import jpabook.jpashop.repository.ItemRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * 조건부 UPDATE
+ * <p>
+ *     UPDATE item SET stock_quantity = stock_quantity - ? WHERE item_id = ? AND stock_quantity >= ?
+ *     재고 검사와 차감을 DB 가 한번에 처리하므로 재시도도 없고 초과판매도 없다.
+ * </p>
+ */
+@Component
+@RequiredArgsConstructor
+public class AtomicStockReservation implements StockReservation {
+
+    private final ItemRepository itemRepository;
+
+    @Override
+    public StockStrategy strategy() {
+        return StockStrategy.ATOMIC;
+    }
+
+    @Override
+    public Item reserve(Long itemId, int count) {
+        if (itemRepository.decreaseStock(itemId, count) == 0) {
+            throw new NotEnoughStockException("need more stock");
+        }
+        // 벌크 UPDATE 는 영속성 컨텍스트를 거치지 않으므로 이미 조회된 엔티티가 있으면 DB 값으로 다시 맞춘다.
+        Item item = itemRepository.findOne(itemId);
+        itemRepository.refresh(item);
+        return item;
+    }
+}
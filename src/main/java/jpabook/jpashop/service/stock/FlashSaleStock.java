@@ -0,0 +1,232 @@
+package jpabook.jpashop.service.stock;
+
+import jpabook.jpashop.domain.StockLedger;
+import jpabook.jpashop.domain.StockReturn;
+import jpabook.jpashop.domain.item.Item;
+import jpabook.jpashop.exception.NotEnoughStockException;
+import jpabook.jpashop.repository.ItemRepository;
+import jpabook.jpashop.repository.StockLedgerRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * <h2>플래시 세일 재고 (인메모리 카운터 + write-behind)</h2>
+ * <p>
+ *     인기상품 하나에 주문이 몰리면 DB 락을 어떻게 걸든 item row 하나 때문에 주문 트랜잭션이 한줄로 선다.
+ *     등록된 상품은 재고를 메모리 카운터에서 차감하고, 주문 트랜잭션에서는 item row 를 건드리지 않고 장부(StockLedger)에 insert 만 한다.
+ *     flusher 가 주기적으로 장부를 모아서 item.stock_quantity 에 한번에 반영한다.
+ * </p>
+ * <li>장부는 주문과 같이 커밋되고 반영과 삭제도 한 트랜잭션이므로, 서버가 죽어도 시작할때 남은 장부를 반영하면 재고가 맞춰진다.</li>
+ * <li>주문 트랜잭션이 롤백되면 카운터에 다시 돌려준다.</li>
+ * <li>item.stock_quantity 는 flush 주기만큼 늦게 보인다. 판매중인 상품의 재고를 상품수정으로 바꾸면 안된다.</li>
+ */
+@Slf4j
+@Component
+public class FlashSaleStock implements StockReservation, StockReturn {
+
+    private final ItemRepository itemRepository;
+    private final StockLedgerRepository stockLedgerRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final List<Long> configuredItemIds;
+    private final long flushIntervalMs;
+    private final int flushBatchSize;
+
+    private final Map<Long, StripedStockCounter> counters = new ConcurrentHashMap<>();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private ScheduledExecutorService flusher;
+
+    public FlashSaleStock(ItemRepository itemRepository,
+                          StockLedgerRepository stockLedgerRepository,
+                          TransactionTemplate transactionTemplate,
+                          @Value("${jpashop.flash-sale.item-ids:}") List<Long> configuredItemIds,
+                          @Value("${jpashop.flash-sale.flush-interval-ms:200}") long flushIntervalMs,
+                          @Value("${jpashop.flash-sale.flush-batch-size:1000}") int flushBatchSize) {
+        this.itemRepository = itemRepository;
+        this.stockLedgerRepository = stockLedgerRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.configuredItemIds = configuredItemIds;
+        this.flushIntervalMs = flushIntervalMs;
+        this.flushBatchSize = flushBatchSize;
+    }
+
+    /**
+     * 시작할때 지난번에 반영하지 못한 장부부터 반영(복구)하고 설정된 상품을 등록한다.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        int recovered = flushAll();
+        if (recovered > 0) {
+            log.info("반영되지 않은 재고 장부 {}건을 복구했습니다.", recovered);
+        }
+        configuredItemIds.forEach(this::enable);
+
+        flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "flash-sale-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (flusher != null) {
+            flusher.shutdown();
+        }
+        flushQuietly();
+    }
+
+    /**
+     * 상품을 플래시 세일 재고로 전환한다. 판매 시작 전에 등록해야 한다.
+     */
+    public void enable(Long itemId) {
+        flushAll();
+        counters.computeIfAbsent(itemId, id -> {
+            int stock = transactionTemplate.execute(status -> itemRepository.findOne(id).getStockQuantity());
+            log.info("플래시 세일 상품 등록 itemId={}, stock={}", id, stock);
+            return new StripedStockCounter(stock);
+        });
+    }
+
+    public void disable(Long itemId) {
+        counters.remove(itemId);
+        flushAll();
+    }
+
+    public boolean isEnabled(Long itemId) {
+        return counters.containsKey(itemId);
+    }
+
+    public long available(Long itemId) {
+        StripedStockCounter counter = counters.get(itemId);
+        return counter == null ? 0 : counter.available();
+    }
+
+    @Override
+    public StockStrategy strategy() {
+        return StockStrategy.FLASH_SALE;
+    }
+
+    /**
+     * 카운터에서 차감하고 장부에 기록한다. 주문 트랜잭션 안에서 호출해야 한다.
+     */
+    @Override
+    public Item reserve(Long itemId, int count) {
+        StripedStockCounter counter = counters.get(itemId);
+        if (counter == null) {
+            throw new IllegalStateException("플래시 세일 상품이 아닙니다. itemId=" + itemId);
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("트랜잭션 안에서만 재고를 예약할 수 있습니다.");
+        }
+        if (!counter.tryReserve(count)) {
+            throw new NotEnoughStockException("need more stock");
+        }
+        // 주문이 롤백되면 예약한 재고를 돌려준다.
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    counter.release(count);
+                }
+            }
+        });
+        stockLedgerRepository.save(StockLedger.reserve(itemId, count));
+        return itemRepository.findOne(itemId);
+    }
+
+    /**
+     * 주문 취소시 재고 반환, 플래시 세일 상품이 아니면 조건 없는 UPDATE 로 DB 재고를 늘린다.
+     * <p>
+     *     상품 엔티티를 읽고-수정-쓰기 하면 @Version 때문에 동시에 들어온 ATOMIC 차감과 부딪혀서
+     *     취소가 OptimisticLockException 으로 실패한다. 차감과 같은 방식(ItemRepository.applyStockDelta)으로 반영한다.
+     * </p>
+     */
+    @Override
+    public void returnStock(Item item, int count) {
+        StripedStockCounter counter = counters.get(item.getId());
+        if (counter == null) {
+            itemRepository.applyStockDelta(item.getId(), -count);
+            // 벌크 UPDATE 는 영속성 컨텍스트를 거치지 않으므로 조회된 엔티티를 DB 값으로 다시 맞춘다.
+            itemRepository.refresh(item);
+            return;
+        }
+        stockLedgerRepository.save(StockLedger.release(item.getId(), count));
+        // 취소가 커밋된 다음에 카운터에 돌려줘야 롤백됐을때 재고가 늘어나지 않는다.
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                counter.release(count);
+            }
+        });
+    }
+
+    /**
+     * 쌓인 장부를 전부 item 재고에 반영한다.
+     * @return 반영한 장부 수
+     */
+    public int flushAll() {
+        int total = 0;
+        int flushed;
+        do {
+            flushed = flushOnce();
+            total += flushed;
+        } while (flushed >= flushBatchSize);
+        return total;
+    }
+
+    private void flushQuietly() {
+        try {
+            flushAll();
+        } catch (RuntimeException e) {
+            log.warn("재고 장부 반영 실패, 다음 주기에 다시 시도합니다.", e);
+        }
+    }
+
+    /**
+     * 장부를 상품별로 합쳐서 UPDATE 하고, 반영한 장부는 같은 트랜잭션에서 지운다.
+     */
+    private int flushOnce() {
+        flushLock.lock();
+        try {
+            return transactionTemplate.execute(status -> {
+                List<StockLedger> pending = stockLedgerRepository.findPending(flushBatchSize);
+                if (pending.isEmpty()) {
+                    return 0;
+                }
+                Map<Long, Integer> deltas = new TreeMap<>(); // item id 순서로 UPDATE 해서 데드락을 피한다.
+                List<Long> ids = new ArrayList<>(pending.size());
+                for (StockLedger ledger : pending) {
+                    deltas.merge(ledger.getItemId(), ledger.getQuantity(), Integer::sum);
+                    ids.add(ledger.getId());
+                }
+                deltas.forEach((itemId, delta) -> {
+                    if (delta != 0) {
+                        itemRepository.applyStockDelta(itemId, delta);
+                    }
+                });
+                stockLedgerRepository.deleteAll(ids);
+                return pending.size();
+            });
+        } finally {
+            flushLock.unlock();
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package jpabook.jpashop.service.stock;
+
+import jpabook.jpashop.domain.item.Item;
+import jpabook.jpashop.repository.ItemRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * 낙관적 락
+ * <p>
+ *     락 없이 조회해서 엔티티의 재고를 빼고, 커밋할 때 @Version 이 바뀌었으면 실패한다.
+ *     충돌이 적을때는 제일 빠르지만 인기상품처럼 충돌이 많으면 재시도가 늘어난다.
+ * </p>
+ */
+@Component
+public class OptimisticStockReservation implements StockReservation {
+
+    private final ItemRepository itemRepository;
+    private final int maxAttempts;
+
+    public OptimisticStockReservation(ItemRepository itemRepository,
+                                      @Value("${jpashop.stock.optimistic-max-attempts:5}") int maxAttempts) {
+        this.itemRepository = itemRepository;
+        this.maxAttempts = maxAttempts;
+    }
+
+    @Override
+    public StockStrategy strategy() {
+        return StockStrategy.OPTIMISTIC;
+    }
+
+    @Override
+    public Item reserve(Long itemId, int count) {
+        Item item = itemRepository.findOne(itemId);
+        item.removeStock(count);
+        return item;
+    }
+
+    @Override
+    public int maxAttempts() {
+        return maxAttempts;
+    }
+}
@@ -0,0 +1,29 @@
+package jpabook.jpashop.service.stock;
+
+import jpabook.jpashop.domain.item.Item;
+import jpabook.jpashop.repository.ItemRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * 비관적 락
+ * <p>SELECT ... FOR UPDATE 로 row 를 잠그기 때문에 같은 상품 주문은 커밋할때까지 줄을 서서 처리된다.</p>
+ */
+@Component
+@RequiredArgsConstructor
+public class PessimisticStockReservation implements StockReservation {
+
+    private final ItemRepository itemRepository;
+
+    @Override
+    public StockStrategy strategy() {
+        return StockStrategy.PESSIMISTIC;
+    }
+
+    @Override
+    public Item reserve(Long itemId, int count) {
+        Item item = itemRepository.findOneForUpdate(itemId);
+        item.removeStock(count);
+        return item;
+    }
+}
@@ -0,0 +1,24 @@
+package jpabook.jpashop.service.stock;
+
+import jpabook.jpashop.domain.item.Item;
+
+/**
+ * 주문 트랜잭션 안에서 재고를 차감(예약)한다.
+ */
+public interface StockReservation {
+
+    StockStrategy strategy();
+
+    /**
+     * itemId 상품의 재고를 count 만큼 차감하고 영속상태의 상품을 반환한다.
+     * @throws jpabook.jpashop.exception.NotEnoughStockException 재고가 부족할 때
+     */
+    Item reserve(Long itemId, int count);
+
+    /**
+     * 충돌시 주문 트랜잭션을 몇번까지 시도할지
+     */
+    default int maxAttempts() {
+        return 1;
+    }
+}
@@ -0,0 +1,38 @@
+package jpabook.jpashop.service.stock;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 등록된 재고 차감 전략 모음, 기본 전략은 jpashop.stock.strategy 로 정한다.
+ */
+@Component
+public class StockReservations {
+
+    private final Map<StockStrategy, StockReservation> reservations = new EnumMap<>(StockStrategy.class);
+    private final StockStrategy defaultStrategy;
+
+    public StockReservations(List<StockReservation> reservations,
+                             @Value("${jpashop.stock.strategy:ATOMIC}") StockStrategy defaultStrategy) {
+        for (StockReservation reservation : reservations) {
+            this.reservations.put(reservation.strategy(), reservation);
+        }
+        this.defaultStrategy = defaultStrategy;
+    }
+
+    public StockReservation get(StockStrategy strategy) {
+        StockReservation reservation = reservations.get(strategy);
+        if (reservation == null) {
+            throw new IllegalArgumentException("지원하지 않는 재고 전략입니다: " + strategy);
+        }
+        return reservation;
+    }
+
+    public StockReservation getDefault() {
+        return get(defaultStrategy);
+    }
+}
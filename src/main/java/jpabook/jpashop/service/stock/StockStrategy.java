@@ -0,0 +1,12 @@
+package jpabook.jpashop.service.stock;
+
+/**
+ * 재고 차감 전략
+ * <li>OPTIMISTIC : @Version 으로 커밋 시점에 충돌을 검사, 충돌하면 주문 트랜잭션을 처음부터 다시 시도</li>
+ * <li>PESSIMISTIC : SELECT ... FOR UPDATE 로 row 를 잠그고 차감</li>
+ * <li>ATOMIC : UPDATE ... WHERE stock_quantity >= ? 한방으로 검사와 차감을 같이 처리</li>
+ * <li>FLASH_SALE : 메모리 카운터에서 차감하고 DB 에는 나중에 모아서 반영 (FlashSaleStock 에 등록된 상품만)</li>
+ */
+public enum StockStrategy {
+    OPTIMISTIC, PESSIMISTIC, ATOMIC, FLASH_SALE
+}
@@ -0,0 +1,87 @@
+package jpabook.jpashop.service.stock;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 여러 칸(stripe)으로 나눈 재고 카운터
+ * <p>
+ *     AtomicLong 하나에 모든 쓰레드가 CAS 를 하면 경합 때문에 느려지므로, LongAdder 처럼 재고를 여러 칸에 나눠 담는다.
+ *     쓰레드마다 다른 칸에서 먼저 빼고, 그 칸이 모자라면 다른 칸들에서 모아서 뺀다.
+ * </p>
+ * <li>어느 칸도 음수가 되지 않으므로 전체 재고보다 많이 빠지는 일은 없다.</li>
+ * <li>동시에 다른 주문이 칸을 비우는 중이면 실제로는 재고가 남아있어도 부족으로 판단할 수 있다.</li>
+ */
+class StripedStockCounter {
+
+    private static final int PADDING = 8; // 칸끼리 같은 캐시라인을 쓰지 않도록 long 8개(64byte) 간격으로 둔다.
+
+    private final AtomicLongArray cells;
+    private final int stripes;
+
+    StripedStockCounter(long initialStock) {
+        int stripes = Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors()) * 2 - 1);
+        this.stripes = Math.max(2, stripes);
+        this.cells = new AtomicLongArray(this.stripes * PADDING);
+        for (int i = 0; i < this.stripes; i++) {
+            long share = initialStock / this.stripes + (i < initialStock % this.stripes ? 1 : 0);
+            cells.set(i * PADDING, share);
+        }
+    }
+
+    /**
+     * count 만큼 차감을 시도한다.
+     * @return 차감에 성공하면 true, 재고가 모자라면 false (이때는 아무것도 차감되지 않는다)
+     */
+    boolean tryReserve(int count) {
+        int start = ThreadLocalRandom.current().nextInt(stripes);
+
+        // 1. 내 칸에서 한번에 빼본다.
+        int home = start * PADDING;
+        long current = cells.get(home);
+        while (current >= count) {
+            if (cells.compareAndSet(home, current, current - count)) {
+                return true;
+            }
+            current = cells.get(home);
+        }
+
+        // 2. 모자라면 모든 칸을 돌면서 조금씩 모은다. 다 못 모으면 모은 만큼 되돌려준다.
+        long taken = 0;
+        for (int i = 0; i < stripes && taken < count; i++) {
+            int index = ((start + i) & (stripes - 1)) * PADDING;
+            taken += takeUpTo(index, count - taken);
+        }
+        if (taken < count) {
+            cells.addAndGet(home, taken);
+            return false;
+        }
+        return true;
+    }
+
+    private long takeUpTo(int index, long wanted) {
+        while (true) {
+            long current = cells.get(index);
+            if (current <= 0) {
+                return 0;
+            }
+            long take = Math.min(current, wanted);
+            if (cells.compareAndSet(index, current, current - take)) {
+                return take;
+            }
+        }
+    }
+
+    void release(int count) {
+        int index = ThreadLocalRandom.current().nextInt(stripes) * PADDING;
+        cells.addAndGet(index, count);
+    }
+
+    long available() {
+        long sum = 0;
+        for (int i = 0; i < stripes; i++) {
+            sum += cells.get(i * PADDING);
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,15 @@
+package jpabook.jpashop.web;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 지연 로딩을 의도해서 쓰는 핸들러 (N+1 예제, default_batch_fetch_size 로 컬렉션을 채우는 V3.1 등)
+ * <p>LazyLoadGuard 가 이 핸들러의 요청은 검사하지 않는다.</p>
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface LazyLoadingAllowed {
+}
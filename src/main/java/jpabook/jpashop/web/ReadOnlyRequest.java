@@ -0,0 +1,20 @@
+package jpabook.jpashop.web;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 조회만 하는 핸들러(목록 API, 목록 화면)에 붙인다.
+ * <p>
+ *     요청 동안 열려있는 영속성 컨텍스트(open-in-view)를 읽기 전용으로 바꾼다. (ReadOnlyRequestInterceptor)
+ *     쿼리 힌트가 없는 지연 로딩 엔티티/컬렉션까지 스냅샷을 남기지 않는다.
+ * </p>
+ * <li>replica 프로필에서는 트랜잭션 밖 조회도 복제본으로 보낸다. (ReadWriteRoutingDataSource)</li>
+ * <li>요청 안에서 엔티티를 수정하는 서비스를 부르는 핸들러에는 붙이면 안된다. 수정 내용이 반영되지 않는다.</li>
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ReadOnlyRequest {
+}
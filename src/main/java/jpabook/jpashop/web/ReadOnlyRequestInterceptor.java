@@ -0,0 +1,57 @@
+package jpabook.jpashop.web;
+
+import jpabook.jpashop.datasource.ReadOnlyRequestRouting;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.FlushMode;
+import org.hibernate.Session;
+import org.springframework.orm.jpa.EntityManagerFactoryUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * @ReadOnlyRequest 핸들러는 요청의 Hibernate 세션을 읽기 전용으로 바꾼다.
+ * <li>setDefaultReadOnly(true) : 이후 로딩되는 엔티티(지연 로딩 포함)는 스냅샷을 남기지 않고 dirty checking 대상이 아니다.</li>
+ * <li>FlushMode.MANUAL : 쿼리 전 자동 flush(변경 감지)를 하지 않는다.</li>
+ * <li>open-in-view 가 세션을 묶어둔 뒤에 실행되어야 하므로 OpenEntityManagerInViewInterceptor 다음 순서로 등록한다. (WebConfig)</li>
+ * <li>@Transactional(readOnly = true) 트랜잭션은 스프링(HibernateJpaDialect)이 같은 설정을 이미 해준다.</li>
+ * <li>replica 프로필에서는 트랜잭션 밖 조회도 복제본으로 보내도록 표시한다. (ReadOnlyRequestRouting)</li>
+ */
+@Component
+@RequiredArgsConstructor
+public class ReadOnlyRequestInterceptor implements AsyncHandlerInterceptor {
+
+    private final EntityManagerFactory emf;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        ReadOnlyRequestRouting.clear();
+        if (!(handler instanceof HandlerMethod) || !((HandlerMethod) handler).hasMethodAnnotation(ReadOnlyRequest.class)) {
+            return true;
+        }
+        ReadOnlyRequestRouting.markReadOnly();
+        EntityManager em = EntityManagerFactoryUtils.getTransactionalEntityManager(emf);
+        if (em == null) {
+            return true; // open-in-view 를 끈 경우 : 요청 단위 세션이 없다.
+        }
+        Session session = em.unwrap(Session.class);
+        session.setDefaultReadOnly(true);
+        session.setHibernateFlushMode(FlushMode.MANUAL);
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        ReadOnlyRequestRouting.clear();
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        ReadOnlyRequestRouting.clear();
+    }
+}
@@ -0,0 +1,23 @@
+package jpabook.jpashop.web;
+
+import jpabook.jpashop.monitor.LazyLoadGuardInterceptor;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+@RequiredArgsConstructor
+public class WebConfig implements WebMvcConfigurer {
+
+    private final ReadOnlyRequestInterceptor readOnlyRequestInterceptor;
+    private final LazyLoadGuardInterceptor lazyLoadGuardInterceptor;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        // open-in-view 인터셉터(order 0)가 세션을 연 다음에 실행
+        registry.addInterceptor(readOnlyRequestInterceptor).order(Ordered.LOWEST_PRECEDENCE);
+        registry.addInterceptor(lazyLoadGuardInterceptor);
+    }
+}
@@ -0,0 +1,8 @@
+package jpabook.jpashop;
+
+/**
+ * 부하 테스트 분류 (@Category(LoadTest.class))
+ * <p>기본 test 태스크에서는 빠지고 ./gradlew loadTest 로만 실행한다.</p>
+ */
+public interface LoadTest {
+}
@@ -0,0 +1,97 @@
+package jpabook.jpashop;
+
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.Delivery;
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.domain.Order;
+import jpabook.jpashop.domain.OrderItem;
+import jpabook.jpashop.domain.item.Book;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+
+/**
+ * 테스트용 주문 데이터 생성과 정리 (트랜잭션 안에서 호출한다)
+ * <li>회원 주소는 서울/강가/123-123, 상품은 10000원 재고 10개, 주문상품은 10000원이다.</li>
+ * <li>주문일자, 배송상태처럼 테스트마다 다른 값은 반환된 주문에 직접 설정한다.</li>
+ */
+public final class OrderFixtures {
+
+    private OrderFixtures() {
+    }
+
+    public static Member createMember(EntityManager em, String name) {
+        Member member = new Member();
+        member.setName(name);
+        member.setAddress(new Address("서울", "강가", "123-123"));
+        em.persist(member);
+        return member;
+    }
+
+    public static Book createBook(EntityManager em, String name) {
+        Book book = new Book();
+        book.setName(name);
+        book.setPrice(10000);
+        book.setStockQuantity(10);
+        em.persist(book);
+        return book;
+    }
+
+    /**
+     * 회원 주소로 배송하는 주문 (주문상품 1개)
+     */
+    public static Order createOrder(EntityManager em, Member member, Book book, int count) {
+        Delivery delivery = new Delivery();
+        delivery.setAddress(member.getAddress());
+
+        Order order = Order.createOrder(member, delivery, OrderItem.createOrderItem(book, 10000, count));
+        em.persist(order);
+        return order;
+    }
+
+    /**
+     * 회원, 상품을 새로 만들어서 1개 주문한다.
+     */
+    public static Order createOrder(EntityManager em, String memberName, String itemName) {
+        return createOrder(em, createMember(em, memberName), createBook(em, itemName), 1);
+    }
+
+    /**
+     * 회원과 그 회원의 주문(주문상품, 배송, 주문 요약)을 모두 지운다.
+     */
+    public static void deleteMemberWithOrders(EntityManager em, Long memberId) {
+        List<Long> deliveryIds = em.createQuery(
+                        "SELECT o.delivery.id FROM Order o WHERE o.member.id = :memberId", Long.class)
+                .setParameter("memberId", memberId)
+                .getResultList();
+        em.createQuery("DELETE FROM OrderSummary s WHERE s.memberId = :memberId")
+                .setParameter("memberId", memberId)
+                .executeUpdate();
+        em.createQuery("DELETE FROM OrderItem oi WHERE oi.order.id IN (SELECT o.id FROM Order o WHERE o.member.id = :memberId)")
+                .setParameter("memberId", memberId)
+                .executeUpdate();
+        em.createQuery("DELETE FROM Order o WHERE o.member.id = :memberId")
+                .setParameter("memberId", memberId)
+                .executeUpdate();
+        if (!deliveryIds.isEmpty()) {
+            em.createQuery("DELETE FROM Delivery d WHERE d.id IN :ids")
+                    .setParameter("ids", deliveryIds)
+                    .executeUpdate();
+        }
+        em.createQuery("DELETE FROM Member m WHERE m.id = :memberId")
+                .setParameter("memberId", memberId)
+                .executeUpdate();
+    }
+
+    /**
+     * 상품과 재고 장부를 지운다. (주문을 먼저 지워야 한다)
+     */
+    public static void deleteItem(EntityManager em, Long itemId) {
+        em.createQuery("DELETE FROM StockLedger l WHERE l.itemId = :itemId")
+                .setParameter("itemId", itemId)
+                .executeUpdate();
+        em.createQuery("DELETE FROM Item i WHERE i.id = :itemId")
+                .setParameter("itemId", itemId)
+                .executeUpdate();
+    }
+}
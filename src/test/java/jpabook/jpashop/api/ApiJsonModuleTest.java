@@ -0,0 +1,92 @@
+package jpabook.jpashop.api;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jpabook.jpashop.api.OrderApiController.OrderDto;
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.Delivery;
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.domain.Order;
+import jpabook.jpashop.domain.OrderItem;
+import jpabook.jpashop.domain.OrderStatus;
+import jpabook.jpashop.domain.item.Book;
+import jpabook.jpashop.repository.member.query.MemberOrderCountDto;
+import jpabook.jpashop.repository.order.query.OrderItemQueryDto;
+import jpabook.jpashop.repository.order.query.OrderQueryDto;
+import org.junit.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+/**
+ * 전용 직렬화기의 출력이 기본(리플렉션) 직렬화와 글자 하나까지 같은지 비교한다.
+ */
+public class ApiJsonModuleTest {
+
+    private final ObjectMapper reflective = Jackson2ObjectMapperBuilder.json()
+            .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS) // 스프링 부트 기본 설정과 같게
+            .build();
+    private final ObjectMapper custom = Jackson2ObjectMapperBuilder.json()
+            .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .modulesToInstall(new ApiJsonModule())
+            .build();
+
+    @Test
+    public void OrderDto_는_기본_직렬화와_같다() throws Exception {
+        Member member = new Member();
+        member.setName("회원\"따옴표\"");
+        Delivery delivery = new Delivery();
+        delivery.setAddress(new Address("서울", "강가", "123-123"));
+        Book book = new Book();
+        book.setName("JPA BOOK");
+        book.setPrice(10000);
+        book.setStockQuantity(10);
+        Order order = Order.createOrder(member, delivery,
+                OrderItem.createOrderItem(book, 10000, 1), OrderItem.createOrderItem(book, 9000, 2));
+        order.setId(7L);
+        order.setOrderDate(LocalDateTime.of(2023, 8, 1, 9, 5, 3, 120_000_000));
+
+        assertSameJson(new OrderDto(order));
+        assertSameJson(new OrderApiController.Result<>(1, Arrays.asList(new OrderDto(order))));
+    }
+
+    @Test
+    public void OrderQueryDto_는_기본_직렬화와_같다() throws Exception {
+        OrderItemQueryDto withCategories = new OrderItemQueryDto(1L, "JPA BOOK", 10000, 1);
+        withCategories.setCategoryNames(Arrays.asList("도서", "IT"));
+        OrderQueryDto order = new OrderQueryDto(1L, "회원", LocalDateTime.of(2023, 1, 1, 0, 0),
+                OrderStatus.ORDER, new Address("서울", null, "123-123"),
+                Arrays.asList(withCategories, new OrderItemQueryDto(1L, "SPRING BOOK", 20000, 2)));
+        OrderQueryDto empty = new OrderQueryDto(2L, null, null, null, null);
+
+        assertSameJson(order);
+        assertSameJson(empty);
+        assertSameJson(new OrderQueryDto(3L, "회원", LocalDateTime.now(), OrderStatus.CANCEL, null, new ArrayList<>()));
+    }
+
+    @Test
+    public void MemberOrderCountDto_는_기본_직렬화와_같다() throws Exception {
+        assertSameJson(new MemberOrderCountDto(1L, "회원", "서울", "강가", "123-123", 3, LocalDateTime.of(2023, 1, 1, 10, 0, 0, 1)));
+        assertSameJson(new MemberOrderCountDto(2L, "회원", null, null, null, 0, null));
+    }
+
+    @Test
+    public void LocalDateTime_은_ISO_형식() throws Exception {
+        LocalDateTime[] dates = {
+                LocalDateTime.of(2023, 12, 31, 23, 59, 59),
+                LocalDateTime.of(2023, 1, 2, 3, 4, 0, 500),
+                LocalDateTime.of(999, 1, 1, 0, 0, 0, 123_456_000),
+                LocalDateTime.of(12345, 6, 7, 8, 9, 10)};
+        for (LocalDateTime date : dates) {
+            assertSameJson(new MemberOrderCountDto(1L, "회원", "서울", "강가", "123-123", 1, date));
+        }
+    }
+
+    private void assertSameJson(Object value) throws Exception {
+        assertEquals(reflective.writeValueAsString(value), custom.writeValueAsString(value));
+    }
+}
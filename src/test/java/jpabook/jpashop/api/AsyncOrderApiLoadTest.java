@@ -0,0 +1,157 @@
+package jpabook.jpashop.api;
+
+import jpabook.jpashop.LoadTest;
+import jpabook.jpashop.OrderFixtures;
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.domain.item.Book;
+import jpabook.jpashop.repository.ItemRepository;
+import jpabook.jpashop.repository.MemberRepository;
+import jpabook.jpashop.service.OrderCommand;
+import jpabook.jpashop.service.OrderService;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * 무거운 비동기 조회(/api/async/v3/orders)를 포화시킨 상태에서 가벼운 API(/api/v1/members)의 꼬리 지연시간 측정
+ * <p>
+ *     무거운 조회는 DB 쓰레드와 bulkhead(여기서는 2) 안에서만 돌고 넘치면 503 으로 바로 거절되므로,
+ *     Tomcat 요청 쓰레드가 묶이지 않아 가벼운 API 는 계속 응답해야 한다.
+ * </p>
+ * <li>./gradlew loadTest 로만 실행한다. (기본 test 에서 제외)</li>
+ * <li>만든 주문/회원/상품은 테스트가 끝나면 지운다.</li>
+ */
+@Category(LoadTest.class)
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "jpashop.async.bulkheads.orders-v3=2")
+public class AsyncOrderApiLoadTest {
+
+    private static final Logger log = LoggerFactory.getLogger(AsyncOrderApiLoadTest.class);
+
+    private static final int HEAVY_THREADS = 32;
+    private static final int ORDERS = 1000;
+    private static final long DURATION_MILLIS = 5_000;
+    private static final double CHEAP_P99_LIMIT_MILLIS = 500; // 가벼운 API 꼬리 지연 허용치
+
+    @Autowired TestRestTemplate restTemplate;
+    @Autowired OrderService orderService;
+    @Autowired MemberRepository memberRepository;
+    @Autowired ItemRepository itemRepository;
+    @Autowired TransactionTemplate transactionTemplate;
+    @Autowired EntityManager em;
+
+    private Long[] ids; // {회원 id, 상품 id}
+
+    @Before
+    public void setUp() {
+        ids = transactionTemplate.execute(status -> {
+            Member member = new Member();
+            member.setName("비동기부하");
+            member.setAddress(new Address("서울", "1", "1111"));
+            memberRepository.save(member);
+
+            Book book = new Book();
+            book.setName("비동기부하 BOOK");
+            book.setPrice(10000);
+            book.setStockQuantity(ORDERS * 2);
+            itemRepository.save(book);
+            return new Long[]{member.getId(), book.getId()};
+        });
+        for (int i = 0; i < ORDERS; i += 100) {
+            List<OrderCommand> commands = new ArrayList<>();
+            for (int j = 0; j < 100; j++) {
+                commands.add(new OrderCommand(ids[0], Arrays.asList(new OrderCommand.Line(ids[1], 1))));
+            }
+            orderService.orders(commands);
+        }
+    }
+
+    @After
+    public void tearDown() {
+        transactionTemplate.executeWithoutResult(status -> {
+            OrderFixtures.deleteMemberWithOrders(em, ids[0]);
+            OrderFixtures.deleteItem(em, ids[1]);
+        });
+    }
+
+    @Test
+    public void 무거운_조회가_포화되어도_가벼운_API는_응답() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(HEAVY_THREADS);
+        AtomicInteger heavyOk = new AtomicInteger();
+        AtomicInteger heavyRejected = new AtomicInteger();
+        AtomicInteger heavyOther = new AtomicInteger();
+        long deadline = System.currentTimeMillis() + DURATION_MILLIS;
+
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < HEAVY_THREADS; t++) {
+            futures.add(pool.submit(() -> {
+                while (System.currentTimeMillis() < deadline) {
+                    HttpStatus status = restTemplate.getForEntity("/api/async/v3/orders", String.class).getStatusCode();
+                    if (status == HttpStatus.OK) {
+                        heavyOk.incrementAndGet();
+                    } else if (status == HttpStatus.SERVICE_UNAVAILABLE) {
+                        heavyRejected.incrementAndGet();
+                    } else {
+                        heavyOther.incrementAndGet();
+                    }
+                }
+            }));
+        }
+
+        List<Long> cheapLatencies = new ArrayList<>();
+        while (System.currentTimeMillis() < deadline) {
+            long start = System.nanoTime();
+            ResponseEntity<String> response = restTemplate.getForEntity("/api/v1/members", String.class);
+            cheapLatencies.add(System.nanoTime() - start);
+            assertEquals("가벼운 API 는 항상 성공", HttpStatus.OK, response.getStatusCode());
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        pool.shutdown();
+        pool.awaitTermination(10, TimeUnit.SECONDS);
+
+        Collections.sort(cheapLatencies);
+        double p99 = percentile(cheapLatencies, 0.99);
+        log.info("heavy : ok={}, rejected(503)={} / cheap : n={}, p50={}ms, p99={}ms, max={}ms",
+                heavyOk.get(), heavyRejected.get(), cheapLatencies.size(),
+                percentile(cheapLatencies, 0.50), p99, percentile(cheapLatencies, 1.0));
+
+        assertEquals("무거운 조회는 성공하거나 503 으로 거절될 뿐 오류/타임아웃이 없어야 한다", 0, heavyOther.get());
+        assertTrue(heavyOk.get() > 0);
+        assertFalse(cheapLatencies.isEmpty());
+        assertTrue("가벼운 API p99 " + p99 + "ms", p99 < CHEAP_P99_LIMIT_MILLIS);
+    }
+
+    private static double percentile(List<Long> sorted, double p) {
+        int index = (int) Math.ceil(p * sorted.size()) - 1;
+        return sorted.get(Math.max(0, index)) / 1_000_000.0;
+    }
+}
@@ -0,0 +1,44 @@
+package jpabook.jpashop.api;
+
+import jpabook.jpashop.exception.InvalidPageRequestException;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.junit.Assert.*;
+
+public class CursorTokenTest {
+
+    @Test
+    public void 인코딩한_커서는_그대로_복원() throws Exception {
+        assertEquals(Long.valueOf(42L), CursorToken.decode(CursorToken.encode(42L)));
+        assertNull(CursorToken.decode(""));
+    }
+
+    @Test(expected = InvalidPageRequestException.class)
+    public void Base64_가_아닌_커서는_거절() throws Exception {
+        CursorToken.decode("!!!");
+    }
+
+    @Test(expected = InvalidPageRequestException.class)
+    public void 숫자가_아닌_커서는_거절() throws Exception {
+        CursorToken.decode(Base64.getUrlEncoder().encodeToString("id:abc".getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test(expected = InvalidPageRequestException.class)
+    public void limit_0_은_거절() throws Exception {
+        CursorToken.limit(0);
+    }
+
+    @Test
+    public void limit_는_최대값으로_제한() throws Exception {
+        assertEquals(100, CursorToken.limit(100));
+        assertEquals(CursorToken.MAX_LIMIT, CursorToken.limit(Integer.MAX_VALUE));
+    }
+
+    @Test(expected = InvalidPageRequestException.class)
+    public void 음수_offset_은_거절() throws Exception {
+        CursorToken.offset(-1);
+    }
+}
@@ -0,0 +1,119 @@
+package jpabook.jpashop.datasource;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ReadWriteRoutingDataSourceTest {
+
+    DataSource primary = mock(DataSource.class);
+    DataSource replica = mock(DataSource.class);
+    Connection primaryConnection = mock(Connection.class);
+    Connection replicaConnection = mock(Connection.class);
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    ReplicaProperties properties = new ReplicaProperties();
+    ReplicaLagMonitor monitor;
+
+    @Before
+    public void setUp() throws Exception {
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        when(replica.getConnection()).thenReturn(replicaConnection);
+        when(replicaConnection.isValid(1)).thenReturn(true);
+    }
+
+    @After
+    public void tearDown() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+        ReadOnlyRequestRouting.clear();
+        if (monitor != null) {
+            monitor.close();
+        }
+    }
+
+    @Test
+    public void 읽기전용_트랜잭션은_복제본() throws Exception {
+        //given
+        ReadWriteRoutingDataSource routing = routing();
+
+        //when
+        Connection write = routing.getConnection();
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        Connection read = routing.getConnection();
+
+        //then
+        assertSame(primaryConnection, write);
+        assertSame(replicaConnection, read);
+        assertEquals(1.0, meterRegistry.get("jpashop.datasource.route").tag("route", "replica").counter().count(), 0);
+    }
+
+    @Test
+    public void 트랜잭션_밖_읽기전용_요청은_복제본() throws Exception {
+        //given
+        ReadWriteRoutingDataSource routing = routing();
+        ReadOnlyRequestRouting.markReadOnly();
+
+        //when
+        Connection read = routing.getConnection();
+        TransactionSynchronizationManager.setActualTransactionActive(true); // 요청 안에서 쓰기 트랜잭션
+        Connection write = routing.getConnection();
+
+        //then
+        assertSame(replicaConnection, read);
+        assertSame("트랜잭션이 있으면 트랜잭션의 readOnly 를 따른다", primaryConnection, write);
+    }
+
+    @Test
+    public void 복제본_연결이_안되면_primary() throws Exception {
+        //given
+        ReadWriteRoutingDataSource routing = routing();
+        when(replica.getConnection()).thenThrow(new SQLException("replica down"));
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        //when
+        Connection read = routing.getConnection();
+
+        //then
+        assertSame(primaryConnection, read);
+        assertFalse("다음 확인까지 복제본을 쓰지 않는다", monitor.isAvailable());
+    }
+
+    @Test
+    public void 복제_지연이_크면_primary() throws Exception {
+        //given
+        properties.setLagQuery("SELECT lag");
+        Statement statement = mock(Statement.class);
+        ResultSet rs = mock(ResultSet.class);
+        when(replicaConnection.createStatement()).thenReturn(statement);
+        when(statement.executeQuery("SELECT lag")).thenReturn(rs);
+        when(rs.next()).thenReturn(true);
+        when(rs.getDouble(1)).thenReturn(10.0); // maxLag 기본값 5초
+        ReadWriteRoutingDataSource routing = routing();
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        //when
+        Connection read = routing.getConnection();
+
+        //then
+        assertSame(primaryConnection, read);
+        assertEquals(10.0, meterRegistry.get("jpashop.datasource.replica.lag").gauge().value(), 0);
+        assertEquals(1.0, meterRegistry.get("jpashop.datasource.route").tag("route", "fallback").counter().count(), 0);
+    }
+
+    private ReadWriteRoutingDataSource routing() {
+        monitor = new ReplicaLagMonitor(replica, properties, meterRegistry);
+        return new ReadWriteRoutingDataSource(primary, replica, monitor, meterRegistry);
+    }
+}
@@ -0,0 +1,87 @@
+package jpabook.jpashop.monitor;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jpabook.jpashop.monitor.SqlBudgetProperties.Budget;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class SqlBudgetMonitorTest {
+
+    private static final String ORDER_ITEMS_IN_SQL = "select oi.order_id, i.name from order_item oi join item i on oi.item_id=i.item_id where oi.order_id in (?, ?)";
+    private static final String ORDER_ITEMS_SQL = "select oi.order_id, i.name from order_item oi join item i on oi.item_id=i.item_id where oi.order_id=?";
+
+    @Test
+    public void 같은_SQL_반복은_N플러스1로_감지() throws Exception {
+        //given
+        SqlBudgetProperties properties = new SqlBudgetProperties();
+        properties.getEndpoints().put("GET /api/v4/orders", new Budget(null, 1));
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        SqlBudgetMonitor monitor = new SqlBudgetMonitor(properties, registry);
+
+        SqlStatistics statistics = new SqlStatistics();
+        statistics.statementExecuted("select o.order_id from orders o", 1_000);
+        for (int i = 0; i < 3; i++) {
+            statistics.statementExecuted(ORDER_ITEMS_SQL, 1_000);
+        }
+
+        //when
+        String violation = monitor.check("GET", "/api/v4/orders", statistics);
+
+        //then
+        assertNotNull("주문상품 조회가 주문마다 반복되면 예산 초과", violation);
+        assertEquals(3, statistics.getMaxRepeats());
+        assertEquals(ORDER_ITEMS_SQL, statistics.getMostRepeatedSql());
+        assertEquals(1.0, registry.get("jpashop.sql.budget.exceeded").tag("kind", "repeats").counter().count(), 0);
+        assertNull("같은 요청은 한번만 검사한다", monitor.check("GET", "/api/v4/orders", statistics));
+    }
+
+    @Test
+    public void 예산_이내() throws Exception {
+        //given
+        SqlBudgetMonitor monitor = new SqlBudgetMonitor(new SqlBudgetProperties(), new SimpleMeterRegistry());
+        SqlStatistics statistics = new SqlStatistics();
+        statistics.statementExecuted("select o.order_id from orders o", 1_000);
+        statistics.rowRead(100);
+
+        //when
+        String violation = monitor.check("GET", "/api/v5/orders", statistics);
+
+        //then
+        assertNull(violation);
+        assertEquals(1, statistics.getStatements());
+        assertEquals(1, statistics.getRows());
+    }
+
+    @Test
+    public void 분할_IN_조회는_N플러스1로_세지_않는다() throws Exception {
+        //given
+        SqlBudgetProperties properties = new SqlBudgetProperties();
+        properties.getEndpoints().put("GET /api/v5/orders", new Budget(3, 1));
+        SqlBudgetMonitor monitor = new SqlBudgetMonitor(properties, new SimpleMeterRegistry());
+
+        SqlStatistics statistics = SqlStatistics.start();
+        try {
+            statistics.statementExecuted("select o.order_id from orders o", 1_000);
+            SqlStatistics.beginChunkedLoad();
+            try {
+                for (int i = 0; i < 3; i++) { // 주문 id 3000개 -> 1000개씩 3번
+                    statistics.statementExecuted(ORDER_ITEMS_IN_SQL, 1_000);
+                }
+            } finally {
+                SqlStatistics.endChunkedLoad();
+            }
+
+            //when
+            String violation = monitor.check("GET", "/api/v5/orders", statistics);
+
+            //then
+            assertNull(violation);
+            assertEquals(4, statistics.getStatements());
+            assertEquals(2, statistics.getChunkStatements());
+            assertEquals(1, statistics.getMaxRepeats());
+        } finally {
+            SqlStatistics.clear();
+        }
+    }
+}
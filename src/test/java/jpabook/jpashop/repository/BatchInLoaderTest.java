@@ -0,0 +1,61 @@
+package jpabook.jpashop.repository;
+
+import org.junit.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.mock;
+
+public class BatchInLoaderTest {
+
+    @Test
+    public void 청크_분할과_패딩() throws Exception {
+        //given
+        BatchInLoader loader = new BatchInLoader(8, true, 1, mock(PlatformTransactionManager.class));
+        List<Long> ids = LongStream.rangeClosed(1, 11).boxed().collect(Collectors.toList());
+
+        //when
+        List<List<Long>> chunks = loader.split(ids);
+
+        //then
+        assertEquals("chunkSize 단위로 나눠야 한다", 2, chunks.size());
+        assertEquals(8, chunks.get(0).size());
+        assertEquals("나머지 3개는 4개로 패딩된다", Arrays.asList(9L, 10L, 11L, 11L), chunks.get(1));
+    }
+
+    @Test
+    public void 중복_id는_한번만_조회() throws Exception {
+        //given
+        BatchInLoader loader = new BatchInLoader(100, false, 1, mock(PlatformTransactionManager.class));
+        List<List<Long>> queried = new ArrayList<>();
+
+        //when
+        List<Long> result = loader.load(Arrays.asList(1L, 2L, 2L, 3L), chunk -> {
+            queried.add(chunk);
+            return chunk;
+        });
+
+        //then
+        assertEquals(1, queried.size());
+        assertEquals(Arrays.asList(1L, 2L, 3L), result);
+    }
+
+    @Test
+    public void Set은_그대로_나눈다() throws Exception {
+        //given
+        BatchInLoader loader = new BatchInLoader(2, false, 1, mock(PlatformTransactionManager.class));
+
+        //when
+        List<List<Long>> chunks = loader.split(new TreeSet<>(Arrays.asList(3L, 1L, 2L)));
+
+        //then
+        assertEquals(Arrays.asList(Arrays.asList(1L, 2L), Arrays.asList(3L)), chunks);
+    }
+}
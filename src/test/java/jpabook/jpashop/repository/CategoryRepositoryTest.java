@@ -0,0 +1,127 @@
+package jpabook.jpashop.repository;
+
+import jpabook.jpashop.domain.Category;
+import jpabook.jpashop.domain.item.Book;
+import jpabook.jpashop.domain.item.Item;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@Transactional
+public class CategoryRepositoryTest {
+
+    @Autowired EntityManager em;
+    @Autowired CategoryRepository categoryRepository;
+
+    @Test
+    public void 하위트리와_조상_조회() throws Exception {
+        //given : 도서 > 국내도서 > 소설, 도서 > 해외도서
+        Category book = createCategory("도서", null);
+        Category domestic = createCategory("국내도서", book);
+        Category novel = createCategory("소설", domestic);
+        Category foreign = createCategory("해외도서", book);
+        em.flush();
+        em.clear();
+
+        //when
+        List<Category> subtree = categoryRepository.findSubtree(book.getId());
+        List<Category> ancestors = categoryRepository.findAncestors(novel.getId());
+
+        //then
+        assertEquals(Arrays.asList(book.getId(), domestic.getId(), foreign.getId(), novel.getId()), ids(subtree));
+        assertEquals("최상위부터", Arrays.asList(book.getId(), domestic.getId()), ids(ancestors));
+    }
+
+    @Test
+    public void 하위트리를_통째로_붙이기() throws Exception {
+        //given : 국내도서 > 소설 을 만든 뒤 도서 밑에 붙인다.
+        Category domestic = createCategory("국내도서", null);
+        Category novel = createCategory("소설", domestic);
+        Category book = createCategory("도서", null);
+
+        //when
+        book.addChildCategory(domestic);
+        em.flush();
+        em.clear();
+
+        //then
+        assertEquals(Arrays.asList(book.getId(), domestic.getId()), ids(categoryRepository.findAncestors(novel.getId())));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void 조상을_하위로_붙이면_예외() throws Exception {
+        //given : 도서 > 국내도서, 도서는 다른 영속성 컨텍스트에서 조회한 인스턴스(준영속)
+        Category book = createCategory("도서", null);
+        Category domestic = createCategory("국내도서", book);
+        em.flush();
+        em.clear();
+        Category detachedBook = categoryRepository.findOne(book.getId());
+        detachedBook.getAncestors().size();
+        detachedBook.getDescendants().size();
+        em.clear();
+
+        //when : 같은 카테고리지만 다른 인스턴스
+        Category managedDomestic = categoryRepository.findOne(domestic.getId());
+        managedDomestic.addChildCategory(detachedBook);
+
+        //then
+        fail("상위 카테고리를 하위로 붙이면 순환이 생긴다.");
+    }
+
+    @Test
+    public void 하위트리_상품_페이징() throws Exception {
+        //given
+        Category book = createCategory("도서", null);
+        Category novel = createCategory("소설", book);
+        Item item1 = createBook("책1", book);
+        Item item2 = createBook("책2", novel);
+        Item item3 = createBook("책3", novel);
+        book.getItems().add(item3); // 두 카테고리에 속한 상품
+        em.flush();
+        em.clear();
+
+        //when
+        List<Item> first = categoryRepository.findItemsInSubtree(book.getId(), null, 2);
+        List<Item> second = categoryRepository.findItemsInSubtree(book.getId(), first.get(first.size() - 1).getId(), 2);
+
+        //then
+        assertEquals(Arrays.asList(item1.getId(), item2.getId()), first.stream().map(Item::getId).collect(Collectors.toList()));
+        assertEquals("중복 없이 나머지", Arrays.asList(item3.getId()), second.stream().map(Item::getId).collect(Collectors.toList()));
+    }
+
+    private Category createCategory(String name, Category parent) {
+        Category category = new Category();
+        category.setName(name);
+        if (parent != null) {
+            parent.addChildCategory(category);
+        }
+        categoryRepository.save(category);
+        return category;
+    }
+
+    private Item createBook(String name, Category category) {
+        Book book = new Book();
+        book.setName(name);
+        book.setPrice(10000);
+        book.setStockQuantity(10);
+        em.persist(book);
+        category.getItems().add(book);
+        return book;
+    }
+
+    private static List<Long> ids(List<Category> categories) {
+        return categories.stream().map(Category::getId).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,115 @@
+package jpabook.jpashop.repository;
+
+import jpabook.jpashop.OrderFixtures;
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.domain.Order;
+import jpabook.jpashop.exception.LazyLoadingViolationException;
+import jpabook.jpashop.monitor.LazyLoadGuard;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceUnitUtil;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@Transactional
+public class FetchPlanTest {
+
+    @Autowired EntityManager em;
+    @Autowired OrderRepository orderRepository;
+
+    @After
+    public void tearDown() {
+        LazyLoadGuard.clear();
+    }
+
+    @Test
+    public void FULL_은_주문상품과_상품까지_조회() throws Exception {
+        //given
+        Long orderId = createOrder();
+        PersistenceUnitUtil util = em.getEntityManagerFactory().getPersistenceUnitUtil();
+
+        //when
+        Order order = orderRepository.findOne(orderId, FetchPlan.FULL);
+        LazyLoadGuard.start(LazyLoadGuard.Mode.FAIL);
+
+        //then
+        assertTrue(util.isLoaded(order, "member"));
+        assertTrue(util.isLoaded(order, "orderItems"));
+        assertEquals("FULL 로 가져온 연관관계는 지연 로딩이 아니다",
+                "플랜 BOOK", order.getOrderItems().get(0).getItem().getName());
+        assertEquals("플랜회원", order.getMember().getName());
+        assertTrue(LazyLoadGuard.current().getViolations().isEmpty());
+    }
+
+    @Test(expected = LazyLoadingViolationException.class)
+    public void 계획에_없는_지연_로딩은_실패() throws Exception {
+        //given
+        Long orderId = createOrder();
+        Order order = orderRepository.findOne(orderId, FetchPlan.SUMMARY);
+        LazyLoadGuard.start(LazyLoadGuard.Mode.FAIL);
+
+        //when
+        order.getOrderItems().size(); // SUMMARY 에는 orderItems 가 없다.
+
+        //then
+        fail("지연 로딩에서 예외가 발생해야 한다.");
+    }
+
+    @Test
+    public void LOG_모드는_횟수만_기록() throws Exception {
+        //given
+        Long orderId = createOrder();
+        Order order = orderRepository.findOne(orderId, FetchPlan.NONE);
+        LazyLoadGuard guard = LazyLoadGuard.start(LazyLoadGuard.Mode.LOG);
+
+        //when
+        order.getMember().getName();
+
+        //then
+        assertEquals(Integer.valueOf(1), guard.getViolations().get(Member.class.getName()));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void 컬렉션_plan_은_페이징_불가() throws Exception {
+        orderRepository.findAllAfter(null, 10, FetchPlan.WITH_ITEMS);
+    }
+
+    @Test
+    public void 컬렉션_plan_은_2단계로_페이징() throws Exception {
+        //given
+        Long first = createOrder();
+        Long second = createOrder();
+        Long third = createOrder();
+
+        //when
+        List<Order> page = orderRepository.findPageAfter(first, 2, FetchPlan.FULL);
+        LazyLoadGuard.start(LazyLoadGuard.Mode.FAIL);
+
+        //then
+        assertEquals(2, page.size());
+        assertEquals("id 페이지 순서를 유지한다", second, page.get(0).getId());
+        assertEquals(third, page.get(1).getId());
+        for (Order order : page) {
+            assertEquals("플랜 BOOK", order.getOrderItems().get(0).getItem().getName());
+            assertEquals("플랜회원", order.getMember().getName());
+        }
+        assertTrue(LazyLoadGuard.current().getViolations().isEmpty());
+    }
+
+    private Long createOrder() {
+        Order order = OrderFixtures.createOrder(em, "플랜회원", "플랜 BOOK");
+        em.flush();
+        em.clear();
+        return order.getId();
+    }
+}
@@ -0,0 +1,73 @@
+package jpabook.jpashop.repository;
+
+import jpabook.jpashop.domain.item.Book;
+import jpabook.jpashop.domain.item.Item;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManagerFactory;
+
+import static org.junit.Assert.*;
+
+/**
+ * 2차 캐시는 트랜잭션(영속성 컨텍스트)을 넘어서 확인해야 하므로 테스트 전체를 트랜잭션으로 묶지 않는다.
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest
+public class ItemCacheTest {
+
+    @Autowired ItemRepository itemRepository;
+    @Autowired TransactionTemplate transactionTemplate;
+    @Autowired EntityManagerFactory emf;
+
+    @Test
+    public void 상품은_2차캐시에서_조회() throws Exception {
+        //given
+        Long itemId = createBook(10);
+        transactionTemplate.execute(status -> itemRepository.findOne(itemId));
+        Statistics statistics = emf.unwrap(SessionFactory.class).getStatistics();
+        long hits = statistics.getSecondLevelCacheHitCount();
+
+        //when
+        Item item = transactionTemplate.execute(status -> itemRepository.findOne(itemId));
+
+        //then
+        assertTrue("다른 트랜잭션에서 다시 조회하면 캐시 적중", statistics.getSecondLevelCacheHitCount() > hits);
+        assertEquals(10, item.getStockQuantity());
+    }
+
+    @Test
+    public void 재고_UPDATE_후에는_캐시를_비운다() throws Exception {
+        //given
+        Long itemId = createBook(10);
+        Long otherId = createBook(10);
+        transactionTemplate.execute(status -> itemRepository.findOne(itemId)); // 캐시에 올린다.
+        transactionTemplate.execute(status -> itemRepository.findOne(otherId));
+
+        //when
+        transactionTemplate.execute(status -> itemRepository.decreaseStock(itemId, 3));
+
+        //then
+        assertTrue("재고가 바뀌지 않은 상품은 캐시에 남는다", emf.getCache().contains(Item.class, otherId));
+        Item item = transactionTemplate.execute(status -> itemRepository.findOne(itemId));
+        assertEquals("캐시에 남은 옛 재고가 아니라 차감된 재고", 7, item.getStockQuantity());
+        assertTrue(emf.getCache().contains(Item.class, itemId));
+    }
+
+    private Long createBook(int stockQuantity) {
+        return transactionTemplate.execute(status -> {
+            Book book = new Book();
+            book.setName("캐시 테스트");
+            book.setPrice(10000);
+            book.setStockQuantity(stockQuantity);
+            itemRepository.save(book);
+            return book.getId();
+        });
+    }
+}
@@ -0,0 +1,102 @@
+package jpabook.jpashop.repository;
+
+import jpabook.jpashop.OrderFixtures;
+import jpabook.jpashop.domain.DeliveryStatus;
+import jpabook.jpashop.domain.Order;
+import org.hibernate.Session;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@Transactional
+public class OrderSearchTest {
+
+    @Autowired EntityManager em;
+    @Autowired OrderRepository orderRepository;
+
+    @Test
+    public void 이름_앞부분_검색() throws Exception {
+        //given
+        Order order1 = createOrder("검색_회원A", LocalDateTime.of(2023, 1, 10, 12, 0), DeliveryStatus.READY);
+        createOrder("검색X회원B", LocalDateTime.of(2023, 1, 11, 12, 0), DeliveryStatus.READY); // _ 는 문자 그대로 비교
+        createOrder("다른검색_회원", LocalDateTime.of(2023, 1, 12, 12, 0), DeliveryStatus.READY);
+        OrderSearch search = new OrderSearch();
+        search.setMemberName("검색_");
+
+        //when
+        List<Order> orders = orderRepository.search(search, 100);
+
+        //then
+        assertEquals(Arrays.asList(order1.getId()), ids(orders));
+    }
+
+    @Test
+    public void 주문일자_배송상태_검색() throws Exception {
+        //given
+        createOrder("기간회원", LocalDateTime.of(2023, 1, 1, 0, 0), DeliveryStatus.COMP);
+        Order order2 = createOrder("기간회원", LocalDateTime.of(2023, 1, 15, 23, 59), DeliveryStatus.COMP);
+        Order order3 = createOrder("기간회원", LocalDateTime.of(2023, 1, 10, 9, 0), DeliveryStatus.COMP);
+        createOrder("기간회원", LocalDateTime.of(2023, 1, 12, 9, 0), DeliveryStatus.READY);
+        createOrder("기간회원", LocalDateTime.of(2023, 1, 16, 0, 0), DeliveryStatus.COMP);
+        OrderSearch search = new OrderSearch();
+        search.setMemberName("기간회원");
+        search.setOrderDateFrom(LocalDate.of(2023, 1, 2));
+        search.setOrderDateTo(LocalDate.of(2023, 1, 15));
+        search.setDeliveryStatus(DeliveryStatus.COMP);
+
+        //when
+        List<Order> orders = orderRepository.search(search, 100);
+        List<Order> again = orderRepository.search(search, 100); // 같은 조합은 등록해 둔 named query 를 쓴다.
+
+        //then
+        assertEquals("끝 날짜는 그날 전체를 포함, 최근 주문부터", Arrays.asList(order2.getId(), order3.getId()), ids(orders));
+        assertEquals(ids(orders), ids(again));
+    }
+
+    @Test
+    public void 검색_결과는_읽기전용() throws Exception {
+        //given
+        createOrder("읽기전용회원", LocalDateTime.of(2023, 2, 1, 12, 0), DeliveryStatus.READY);
+        em.flush();
+        em.clear();
+        OrderSearch search = new OrderSearch();
+        search.setMemberName("읽기전용회원");
+
+        //when
+        Order order = orderRepository.search(search, 100).get(0);
+        boolean readOnly = em.unwrap(Session.class).isReadOnly(order);
+        order.setOrderDate(LocalDateTime.of(2000, 1, 1, 0, 0));
+        em.flush();
+        em.clear();
+
+        //then
+        assertTrue("스냅샷을 남기지 않는다", readOnly);
+        assertEquals("목록으로 조회한 엔티티의 변경은 반영되지 않는다",
+                LocalDateTime.of(2023, 2, 1, 12, 0), orderRepository.findOne(order.getId()).getOrderDate());
+    }
+
+    private Order createOrder(String memberName, LocalDateTime orderDate, DeliveryStatus deliveryStatus) {
+        Order order = OrderFixtures.createOrder(em, memberName, "검색 테스트");
+        order.setOrderDate(orderDate);
+        order.getDelivery().setStatus(deliveryStatus);
+        return order;
+    }
+
+    private static List<Long> ids(List<Order> orders) {
+        return orders.stream().map(Order::getId).collect(Collectors.toList());
+    }
+}
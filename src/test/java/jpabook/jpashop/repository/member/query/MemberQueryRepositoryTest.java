@@ -0,0 +1,62 @@
+package jpabook.jpashop.repository.member.query;
+
+import jpabook.jpashop.OrderFixtures;
+import jpabook.jpashop.domain.Member;
+import org.hibernate.Session;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@Transactional
+public class MemberQueryRepositoryTest {
+
+    @Autowired EntityManager em;
+    @Autowired MemberQueryRepository memberQueryRepository;
+
+    @Test
+    public void 회원별_주문수와_마지막_주문일() throws Exception {
+        //given
+        Member before = createMember("이전회원"); // 커서 기준
+        Member member = createMember("주문회원");
+        createOrder(member, LocalDateTime.of(2023, 3, 1, 10, 0));
+        createOrder(member, LocalDateTime.of(2023, 3, 5, 10, 0));
+        Member noOrder = createMember("주문없는회원");
+        em.flush();
+        em.clear();
+
+        //when
+        List<MemberOrderCountDto> result = memberQueryRepository.findMemberOrderCounts(before.getId(), 2);
+
+        //then
+        assertEquals(2, result.size());
+        assertEquals(member.getId(), result.get(0).getMemberId());
+        assertEquals(2, result.get(0).getOrderCount());
+        assertEquals(LocalDateTime.of(2023, 3, 5, 10, 0), result.get(0).getLastOrderDate());
+        assertEquals("서울", result.get(0).getAddress().getCity());
+        assertEquals(noOrder.getId(), result.get(1).getMemberId());
+        assertEquals("주문이 없어도 나온다", 0, result.get(1).getOrderCount());
+        assertNull(result.get(1).getLastOrderDate());
+        assertEquals("엔티티를 영속성 컨텍스트에 올리지 않는다",
+                0, em.unwrap(Session.class).getStatistics().getEntityCount());
+    }
+
+    private Member createMember(String name) {
+        return OrderFixtures.createMember(em, name);
+    }
+
+    private void createOrder(Member member, LocalDateTime orderDate) {
+        OrderFixtures.createOrder(em, member, OrderFixtures.createBook(em, "회원 목록 테스트"), 1)
+                .setOrderDate(orderDate);
+    }
+}
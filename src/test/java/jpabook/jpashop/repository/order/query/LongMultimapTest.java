@@ -0,0 +1,75 @@
+package jpabook.jpashop.repository.order.query;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+public class LongMultimapTest {
+
+    @Test
+    public void 키별로_묶고_순서_유지() throws Exception {
+        //given
+        List<OrderItemQueryDto> rows = Arrays.asList(
+                item(3L, "A"), item(1L, "B"), item(3L, "C"), item(2L, "D"), item(1L, "E"));
+
+        //when
+        LongMultimap<OrderItemQueryDto> map = LongMultimap.group(rows, OrderItemQueryDto::getOrderId);
+
+        //then
+        assertEquals(3, map.keyCount());
+        assertEquals(Arrays.asList("B", "E"), names(map.get(1L)));
+        assertEquals(Arrays.asList("D"), names(map.get(2L)));
+        assertEquals("같은 키 안에서는 원래 순서", Arrays.asList("A", "C"), names(map.get(3L)));
+        assertNull("없는 키는 Map.get 처럼 null", map.get(4L));
+    }
+
+    @Test
+    public void id_정렬과_중복_제거() throws Exception {
+        //given
+        LongIds ids = new LongIds(2);
+        for (long id : new long[]{300L, 100L, 300L, 200L, 100L}) {
+            ids.add(id);
+        }
+
+        //when
+        Set<Long> distinct = ids.distinct();
+
+        //then
+        assertEquals(Arrays.asList(100L, 200L, 300L), Arrays.asList(distinct.toArray(new Long[0])));
+        assertTrue(distinct.contains(200L));
+        assertFalse(distinct.contains(250L));
+    }
+
+    @Test
+    public void LongKeyMap_확장() throws Exception {
+        //given
+        LongKeyMap<String> map = new LongKeyMap<>(1);
+
+        //when
+        for (long id = 1; id <= 1000; id++) {
+            map.put(id * 64, "v" + id); // 하위 비트가 같은 키끼리 충돌
+        }
+
+        //then
+        assertEquals(1000, map.size());
+        assertEquals("v1", map.get(64));
+        assertEquals("v1000", map.get(64000));
+        assertNull(map.get(65));
+    }
+
+    private static OrderItemQueryDto item(Long orderId, String name) {
+        return new OrderItemQueryDto(orderId, name, 1000, 1);
+    }
+
+    private static List<String> names(List<OrderItemQueryDto> items) {
+        String[] names = new String[items.size()];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = items.get(i).getItemName();
+        }
+        return Arrays.asList(names);
+    }
+}
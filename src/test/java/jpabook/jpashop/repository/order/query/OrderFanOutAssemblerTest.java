@@ -0,0 +1,66 @@
+package jpabook.jpashop.repository.order.query;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+/**
+ * 병렬 조립 결과가 순차 조회(V5)와 같은지 비교한다.
+ * <p>자식 조회가 별도 트랜잭션에서 실행되므로 @Transactional 롤백 테스트가 아니라 InitDb 가 커밋한 데이터로 비교한다.</p>
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest
+public class OrderFanOutAssemblerTest {
+
+    @Autowired OrderFanOutAssembler orderFanOutAssembler;
+    @Autowired OrderQueryRepository orderQueryRepository;
+
+    @Test
+    public void 병렬_조립은_V5와_같은_결과() throws Exception {
+        //when
+        List<OrderQueryDto> expected = orderQueryRepository.findAllByDto_optimization(null, 100);
+        List<OrderQueryDto> actual = orderFanOutAssembler.findAll(null, 100);
+
+        //then
+        assertFalse(expected.isEmpty());
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            OrderQueryDto e = expected.get(i);
+            OrderQueryDto a = actual.get(i);
+            assertEquals(e.getOrderId(), a.getOrderId());
+            assertEquals(e.getName(), a.getName());
+            assertEquals(e.getAddress().getCity(), a.getAddress().getCity());
+            assertEquals(e.getOrderStatus(), a.getOrderStatus());
+            assertEquals(itemNames(e), itemNames(a));
+            a.getOrderItems().forEach(oi -> assertNotNull("카테고리가 없으면 빈 목록", oi.getCategoryNames()));
+        }
+    }
+
+    @Test
+    public void 키셋_페이징() throws Exception {
+        //given
+        List<OrderQueryDto> first = orderFanOutAssembler.findAll(null, 1);
+
+        //when
+        List<OrderQueryDto> second = orderFanOutAssembler.findAll(first.get(0).getOrderId(), 1);
+
+        //then
+        assertEquals(1, first.size());
+        assertTrue(second.isEmpty() || second.get(0).getOrderId() > first.get(0).getOrderId());
+    }
+
+    // V5 주문상품 조회에는 ORDER BY 가 없으므로 순서는 비교하지 않는다.
+    private static List<String> itemNames(OrderQueryDto order) {
+        return order.getOrderItems().stream()
+                .map(OrderItemQueryDto::getItemName)
+                .sorted()
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,100 @@
+package jpabook.jpashop.repository.order.search;
+
+import jpabook.jpashop.OrderFixtures;
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.domain.item.Book;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+/**
+ * 색인은 커밋할때 반영되므로 테스트 전체를 트랜잭션으로 묶지 않는다. (테스트 설정은 sync 색인 + 메모리 인덱스)
+ * <p>커밋한 데이터는 같은 컨텍스트를 쓰는 다른 테스트에 보이므로 끝나면 지운다.</p>
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest
+public class OrderTextSearchRepositoryTest {
+
+    @Autowired EntityManager em;
+    @Autowired TransactionTemplate transactionTemplate;
+    @Autowired OrderTextSearchRepository orderTextSearchRepository;
+
+    private final List<Long> memberIds = new ArrayList<>();
+    private final List<Long> itemIds = new ArrayList<>();
+
+    @After
+    public void tearDown() {
+        transactionTemplate.executeWithoutResult(status -> {
+            memberIds.forEach(memberId -> OrderFixtures.deleteMemberWithOrders(em, memberId));
+            itemIds.forEach(itemId -> OrderFixtures.deleteItem(em, itemId));
+        });
+    }
+
+    @Test
+    public void 회원_이름_일부로_검색() throws Exception {
+        //given
+        Long orderId = createOrder("홍길동", "검색 BOOK", "978-0000000001");
+
+        //when
+        List<Long> ids = ids(orderTextSearchRepository.search("길동", 10));
+
+        //then
+        assertTrue(ids.contains(orderId));
+    }
+
+    @Test
+    public void ISBN_으로_검색() throws Exception {
+        //given
+        Long orderId = createOrder("이순신", "거북선 BOOK", "978-0000000002");
+        Long other = createOrder("이순신", "판옥선 BOOK", "978-0000000003");
+
+        //when
+        List<Long> ids = ids(orderTextSearchRepository.search("978-0000000002", 10));
+
+        //then
+        assertEquals(orderId, ids.get(0));
+        assertFalse("ISBN 은 전체가 일치해야 한다", ids.contains(other));
+    }
+
+    @Test
+    public void 많이_겹칠수록_먼저() throws Exception {
+        //given
+        Long partial = createOrder("을지로", "살수 BOOK", "978-0000000004"); // "을지" 만 겹친다.
+        Long exact = createOrder("을지문덕", "살수 BOOK", "978-0000000005");
+
+        //when
+        List<OrderSearchHit> hits = orderTextSearchRepository.search("을지문덕", 10);
+
+        //then
+        List<Long> ids = ids(hits);
+        assertEquals(exact, ids.get(0));
+        assertTrue("일부만 겹쳐도 검색된다", ids.contains(partial));
+        assertTrue(hits.get(0).getScore() > hits.get(ids.indexOf(partial)).getScore());
+    }
+
+    private Long createOrder(String memberName, String itemName, String isbn) {
+        return transactionTemplate.execute(status -> {
+            Member member = OrderFixtures.createMember(em, memberName);
+            Book book = OrderFixtures.createBook(em, itemName);
+            book.setIsbn(isbn);
+            memberIds.add(member.getId());
+            itemIds.add(book.getId());
+            return OrderFixtures.createOrder(em, member, book, 1).getId();
+        });
+    }
+
+    private static List<Long> ids(List<OrderSearchHit> hits) {
+        return hits.stream().map(OrderSearchHit::getOrderId).collect(Collectors.toList());
+    }
+}
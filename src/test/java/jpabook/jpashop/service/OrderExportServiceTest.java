@@ -0,0 +1,64 @@
+package jpabook.jpashop.service;
+
+import jpabook.jpashop.OrderFixtures;
+import jpabook.jpashop.domain.Order;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@Transactional
+public class OrderExportServiceTest {
+
+    @Autowired EntityManager em;
+    @Autowired OrderExportService orderExportService;
+
+    @Test
+    public void 한_줄에_주문_하나() throws Exception {
+        //given
+        Long order1 = createOrder("내보내기회원A", "내보내기 BOOK A", 2);
+        Long order2 = createOrder("내보내기회원B", "내보내기 BOOK B", 3);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        //when
+        long exported = orderExportService.exportOrders(out);
+
+        //then
+        String body = new String(out.toByteArray(), StandardCharsets.UTF_8);
+        assertTrue("마지막 줄도 줄바꿈으로 끝난다", body.endsWith("\n"));
+        List<String> lines = Arrays.asList(body.split("\n"));
+        assertEquals(exported, lines.size());
+        for (String line : lines) {
+            assertTrue("줄마다 JSON 객체 하나 (앞에 구분자가 붙지 않는다) : " + line, line.startsWith("{") && line.endsWith("}"));
+        }
+        assertTrue(lines.contains(expectedLine(order1, "내보내기회원A", "내보내기 BOOK A", 2)));
+        assertTrue(lines.contains(expectedLine(order2, "내보내기회원B", "내보내기 BOOK B", 3)));
+    }
+
+    private static String expectedLine(Long orderId, String memberName, String itemName, int count) {
+        return "{\"orderId\":" + orderId + ",\"name\":\"" + memberName + "\",\"orderDate\":\"2023-08-01T09:30:00\""
+                + ",\"orderStatus\":\"ORDER\",\"address\":{\"city\":\"서울\",\"street\":\"강가\",\"zipcode\":\"123-123\"}"
+                + ",\"orderItems\":[{\"orderId\":" + orderId + ",\"itemName\":\"" + itemName + "\",\"orderPrice\":10000,\"count\":" + count + "}]}";
+    }
+
+    private Long createOrder(String memberName, String itemName, int count) {
+        Order order = OrderFixtures.createOrder(em,
+                OrderFixtures.createMember(em, memberName), OrderFixtures.createBook(em, itemName), count);
+        order.setOrderDate(LocalDateTime.of(2023, 8, 1, 9, 30));
+        em.flush();
+        return order.getId();
+    }
+}
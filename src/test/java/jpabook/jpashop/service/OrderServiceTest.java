@@ -2,9 +2,12 @@ package jpabook.jpashop.service;
 
 import javax.persistence.EntityManager;
 import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.Delivery;
+import jpabook.jpashop.domain.DeliveryStatus;
 import jpabook.jpashop.domain.Member;
 import jpabook.jpashop.domain.Order;
 import jpabook.jpashop.domain.OrderStatus;
+import jpabook.jpashop.domain.OrderSummary;
 import jpabook.jpashop.domain.item.Book;
 import jpabook.jpashop.domain.item.Item;
 import jpabook.jpashop.exception.NotEnoughStockException;
@@ -16,6 +19,9 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.junit4.SpringRunner;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Arrays;
+import java.util.List;
+
 import static org.junit.Assert.*;
 
 @RunWith(SpringRunner.class)
@@ -84,6 +90,91 @@ public class OrderServiceTest {
         assertEquals("주문이 취소된 상품은 재고가 증가해야한다",10,item.getStockQuantity());
     }
 
+    @Test
+    public void 대량주문() throws Exception {
+        //given
+        Member member1 = createMember("Ronaldo");
+        Member member2 = createMember("Messi");
+        Book book1 = createBook("축구신 호날두", 10000, 10);
+        Book book2 = createBook("시골JPA", 20000, 10);
+
+        List<OrderCommand> commands = Arrays.asList(
+                new OrderCommand(member1.getId(), Arrays.asList(
+                        new OrderCommand.Line(book1.getId(), 2),
+                        new OrderCommand.Line(book2.getId(), 1))),
+                new OrderCommand(member2.getId(), Arrays.asList(
+                        new OrderCommand.Line(book1.getId(), 3))));
+
+        //when
+        List<Long> orderIds = orderService.orders(commands);
+
+        //then
+        assertEquals("요청한 주문 수만큼 생성된다", 2, orderIds.size());
+        Order first = orderRepository.findOne(orderIds.get(0));
+        assertEquals("주문 하나에 여러 상품을 담을 수 있다", 2, first.getOrderItems().size());
+        assertEquals(10000 * 2 + 20000, first.getTotalPrice());
+        assertEquals("같은 상품은 모든 주문의 수량을 합쳐서 차감한다", 5, book1.getStockQuantity());
+        assertEquals(9, book2.getStockQuantity());
+    }
+
+    @Test(expected = NotEnoughStockException.class)
+    public void 대량주문_재고수량초과() throws Exception {
+        //given
+        Member member = createMember("Ronaldo");
+        Book book = createBook("축구신 호날두", 10000, 3);
+
+        //when
+        orderService.orders(Arrays.asList(
+                new OrderCommand(member.getId(), Arrays.asList(new OrderCommand.Line(book.getId(), 2))),
+                new OrderCommand(member.getId(), Arrays.asList(new OrderCommand.Line(book.getId(), 2)))));
+
+        //then
+        fail("재고수량부족");
+    }
+
+    @Test
+    public void 배송상태_변경은_요약에도_반영() throws Exception {
+        //given
+        Member member = createMember("Ronaldo");
+        Book book = createBook("축구신 호날두", 10000, 10);
+        Long orderId = orderService.order(member.getId(), book.getId(), 1);
+
+        //when
+        orderService.changeDeliveryStatus(orderId, DeliveryStatus.COMP);
+        em.flush();
+        em.clear();
+
+        //then
+        assertEquals(DeliveryStatus.COMP, em.find(OrderSummary.class, orderId).getDeliveryStatus());
+        assertEquals(DeliveryStatus.COMP, orderRepository.findOne(orderId).getDelivery().getStatus());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void 주문상품_없는_주문은_불가() throws Exception {
+        Order.createOrder(createMember("Ronaldo"), new Delivery());
+    }
+
+    @Test
+    public void 주문요약_생성과_취소() throws Exception {
+        //given
+        Member member = createMember("Ronaldo");
+        Book book = createBook("축구신 호날두", 10000, 10);
+        Long orderId = orderService.order(member.getId(), book.getId(), 3);
+
+        //when
+        orderService.cancelOrder(orderId);
+        em.flush();
+        em.clear();
+
+        //then
+        OrderSummary summary = em.find(OrderSummary.class, orderId);
+        assertEquals("회원 이름을 복사해 둔다", "Ronaldo", summary.getMemberName());
+        assertEquals("총 금액을 미리 계산해 둔다", 30000, summary.getTotalPrice());
+        assertEquals(1, summary.getItemCount());
+        assertEquals("축구신 호날두", summary.getItemName());
+        assertEquals("취소하면 요약 상태도 바뀐다", OrderStatus.CANCEL, summary.getStatus());
+    }
+
     private Book createBook(String name, int price, int quantity) {
         Book book = new Book();
         book.setName(name);
@@ -0,0 +1,185 @@
+package jpabook.jpashop.service;
+
+import jpabook.jpashop.LoadTest;
+import jpabook.jpashop.OrderFixtures;
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.domain.item.Book;
+import jpabook.jpashop.exception.NotEnoughStockException;
+import jpabook.jpashop.repository.ItemRepository;
+import jpabook.jpashop.repository.MemberRepository;
+import jpabook.jpashop.service.stock.FlashSaleStock;
+import jpabook.jpashop.service.stock.StockStrategy;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * 인기상품 1개에 동시 주문이 몰릴때 전략별 처리량과 정합성 확인
+ * <p>재고보다 많은 주문을 동시에 넣고, 남은 재고 = 초기 재고 - 성공한 주문 수 인지(=lost update, 초과판매가 없는지) 검사한다.</p>
+ * <li>./gradlew loadTest 로만 실행한다. (기본 test 에서 제외)</li>
+ * <li>만든 주문/회원/상품은 테스트가 끝나면 지운다.</li>
+ */
+@Category(LoadTest.class)
+@RunWith(SpringRunner.class)
+@SpringBootTest
+public class StockReservationLoadTest {
+
+    private static final Logger log = LoggerFactory.getLogger(StockReservationLoadTest.class);
+
+    private static final int THREADS = 16;
+    private static final int ORDERS_PER_THREAD = 25;
+    private static final int INITIAL_STOCK = 300; // 주문 400건 > 재고 300개
+
+    @Autowired OrderService orderService;
+    @Autowired MemberRepository memberRepository;
+    @Autowired ItemRepository itemRepository;
+    @Autowired TransactionTemplate transactionTemplate;
+    @Autowired FlashSaleStock flashSaleStock;
+    @Autowired EntityManager em;
+
+    private final List<Long> memberIds = new ArrayList<>();
+    private final List<Long> itemIds = new ArrayList<>();
+
+    @After
+    public void tearDown() {
+        transactionTemplate.executeWithoutResult(status -> {
+            memberIds.forEach(memberId -> OrderFixtures.deleteMemberWithOrders(em, memberId));
+            itemIds.forEach(itemId -> OrderFixtures.deleteItem(em, itemId));
+        });
+    }
+
+    @Test
+    public void 낙관적락_동시주문() throws Exception {
+        runLoad(StockStrategy.OPTIMISTIC);
+    }
+
+    @Test
+    public void 비관적락_동시주문() throws Exception {
+        runLoad(StockStrategy.PESSIMISTIC);
+    }
+
+    @Test
+    public void 조건부_UPDATE_동시주문() throws Exception {
+        runLoad(StockStrategy.ATOMIC);
+    }
+
+    /**
+     * 위의 row 락 방식들과 처리량(orders/sec)을 비교한다.
+     */
+    @Test
+    public void 플래시세일_인메모리재고_동시주문() throws Exception {
+        Long itemId = createBook("인기상품-" + StockStrategy.FLASH_SALE, INITIAL_STOCK);
+        flashSaleStock.enable(itemId);
+        try {
+            int success = runLoad(StockStrategy.FLASH_SALE, itemId);
+            assertEquals("카운터와 DB 재고가 같아야 한다", INITIAL_STOCK - success, flashSaleStock.available(itemId));
+        } finally {
+            flashSaleStock.disable(itemId);
+        }
+    }
+
+    private int runLoad(StockStrategy strategy) throws Exception {
+        return runLoad(strategy, createBook("인기상품-" + strategy, INITIAL_STOCK));
+    }
+
+    /**
+     * @return 성공한 주문 수
+     */
+    private int runLoad(StockStrategy strategy, Long itemId) throws Exception {
+        //given
+        Long memberId = createMember("load-" + strategy);
+
+        AtomicInteger success = new AtomicInteger();
+        AtomicInteger outOfStock = new AtomicInteger();
+        AtomicInteger conflict = new AtomicInteger();
+        AtomicInteger otherFailure = new AtomicInteger();
+
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+
+        //when
+        for (int t = 0; t < THREADS; t++) {
+            futures.add(pool.submit(() -> {
+                start.await();
+                for (int i = 0; i < ORDERS_PER_THREAD; i++) {
+                    try {
+                        orderService.order(memberId, itemId, 1, strategy);
+                        success.incrementAndGet();
+                    } catch (NotEnoughStockException e) {
+                        outOfStock.incrementAndGet();
+                    } catch (OptimisticLockingFailureException e) {
+                        conflict.incrementAndGet(); // 재시도 횟수를 다 쓴 경우
+                    } catch (RuntimeException e) {
+                        otherFailure.incrementAndGet(); // 락 대기시간 초과 등
+                    }
+                }
+                return null;
+            }));
+        }
+        long startedAt = System.nanoTime();
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        long elapsedNanos = System.nanoTime() - startedAt;
+        pool.shutdown();
+
+        //then
+        flashSaleStock.flushAll(); // 플래시 세일 상품은 장부를 DB 재고에 반영한 다음 비교
+        int remaining = transactionTemplate.execute(status -> itemRepository.findOne(itemId).getStockQuantity());
+        int attempts = THREADS * ORDERS_PER_THREAD;
+        log.info("[{}] {}건 / {} ms -> {} orders/sec (성공 {}, 재고부족 {}, 충돌 {}, 기타 {}, 남은재고 {})",
+                strategy, attempts, elapsedNanos / 1_000_000, (long) (attempts / (elapsedNanos / 1_000_000_000.0)),
+                success.get(), outOfStock.get(), conflict.get(), otherFailure.get(), remaining);
+
+        assertEquals("모든 주문은 성공하거나 실패해야 한다", attempts,
+                success.get() + outOfStock.get() + conflict.get() + otherFailure.get());
+        assertEquals("남은 재고는 초기 재고 - 성공한 주문 수 이다 (lost update 없음)", INITIAL_STOCK - success.get(), remaining);
+        assertTrue("재고보다 많이 팔면 안된다", remaining >= 0);
+        return success.get();
+    }
+
+    private Long createMember(String name) {
+        return transactionTemplate.execute(status -> {
+            Member member = new Member();
+            member.setName(name);
+            member.setAddress(new Address("서울", "강남", "123-123"));
+            memberRepository.save(member);
+            memberIds.add(member.getId());
+            return member.getId();
+        });
+    }
+
+    private Long createBook(String name, int stockQuantity) {
+        return transactionTemplate.execute(status -> {
+            Book book = new Book();
+            book.setName(name);
+            book.setPrice(10000);
+            book.setStockQuantity(stockQuantity);
+            itemRepository.save(book);
+            itemIds.add(book.getId());
+            return book.getId();
+        });
+    }
+}